@@ -0,0 +1,163 @@
+package at.oliver.heap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open list operations with the keys of a search: f_cost in the upper, h_cost in the lower 32 bits.
+ * Every invocation adds {@value #ITEMS} values, lowers the key of every fourth and removes all of them again,
+ * the f_costs grow slowly like in a search, so {@code BucketQueue} stays within its span.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HeapBenchmark {
+    private static final int ITEMS = 4096;
+
+    /**
+     * @return sum of the removed values, keeps the results alive
+     */
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long intHeap(IntHeaps state) {
+        IntHeap heap = state.heap;
+        for(int i = 0; i < ITEMS; i++) {
+            heap.add(i, state.keys[i]);
+        }
+        for(int i = 0; i < ITEMS; i += 4) {
+            heap.add(i, state.keys[i] - (1L << 32));  // lower f_cost, like a shorter route
+        }
+        long sum = 0;
+        while(!heap.isEmpty()) {
+            sum += heap.removeFirst();
+        }
+        return sum;
+    }
+
+    /**
+     * The same operations on the generic {@code MinHeap} of items, which know their position.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long minHeap(Items state) {
+        MinHeap<Item> heap = state.heap;
+        for(int i = 0; i < ITEMS; i++) {
+            state.items[i].key = state.keys[i];
+            heap.add(state.items[i]);
+        }
+        for(int i = 0; i < ITEMS; i += 4) {
+            state.items[i].key -= 1L << 32;
+            heap.updateItem(state.items[i]);
+        }
+        long sum = 0;
+        while(heap.size() > 0) {
+            sum += heap.removeFirst().key;
+        }
+        return sum;
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        final long[] keys = new long[ITEMS];
+
+        @Setup
+        public void createKeys() {
+            Random random = new Random(3);
+            for(int i = 0; i < ITEMS; i++) {
+                int f_cost = i / 8 + random.nextInt(28);
+                int h_cost = random.nextInt(f_cost + 1);
+                this.keys[i] = (long) f_cost << 32 | h_cost;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class IntHeaps extends Keys {
+        @Param({"INT_MIN_HEAP", "BINARY_INDEXED", "QUATERNARY_INDEXED", "BUCKET_QUEUE"})
+        Kind kind;
+
+        IntHeap heap;
+
+        @Setup
+        public void createHeap() {
+            this.heap = this.kind.create();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Items extends Keys {
+        final MinHeap<Item> heap = new MinHeap<>(ITEMS);
+        final Item[] items = new Item[ITEMS];
+
+        @Setup
+        public void createItems() {
+            for(int i = 0; i < ITEMS; i++) {
+                this.items[i] = new Item();
+            }
+        }
+    }
+
+    public enum Kind {
+        INT_MIN_HEAP {
+            @Override
+            IntHeap create() {
+                return new IntMinHeap(ITEMS);
+            }
+        },
+        BINARY_INDEXED {
+            @Override
+            IntHeap create() {
+                return IndexedIntHeap.binary(ITEMS);
+            }
+        },
+        QUATERNARY_INDEXED {
+            @Override
+            IntHeap create() {
+                return IndexedIntHeap.quaternary(ITEMS);
+            }
+        },
+        BUCKET_QUEUE {
+            @Override
+            IntHeap create() {
+                return new BucketQueue(1024);
+            }
+        };
+
+        abstract IntHeap create();
+    }
+
+    static class Item implements Comparable<Item>, IndexInHeap {
+        long key;
+        private int heapIndex;
+
+        @Override
+        public int compareTo(Item other) {
+            return Long.compare(this.key, other.key);
+        }
+
+        @Override
+        public int getHeapIndex() {
+            return this.heapIndex;
+        }
+
+        @Override
+        public void setHeapIndex(int heapIndex) {
+            this.heapIndex = heapIndex;
+        }
+    }
+}
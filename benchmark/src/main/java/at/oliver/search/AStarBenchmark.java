@@ -0,0 +1,86 @@
+package at.oliver.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full searches from the top left to the bottom right corner of the generated maps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class AStarBenchmark {
+    /**
+     * Search of the {@code PathFinder}, which reuses its state.
+     */
+    @Benchmark
+    public SearchResult findPath(Finder state) {
+        return state.finder.findPath(0, 0, state.size - 1, state.size - 1);
+    }
+
+    /**
+     * A* allocating the state of every search, like a single query does.
+     */
+    @Benchmark
+    public SearchResult aStarWithoutContext(Map state) {
+        return AStar.findPath(state.grid, 0, 0, state.size - 1, state.size - 1);
+    }
+
+    /**
+     * A* with an explicitly reused {@code SearchContext}.
+     */
+    @Benchmark
+    public SearchResult aStarWithContext(Map state) {
+        return AStar.findPath(state.grid, 0, 0, state.size - 1, state.size - 1, state.context);
+    }
+
+    @State(Scope.Thread)
+    public static class Map {
+        @Param({"OPEN", "RANDOM", "MAZE"})
+        Maps map;
+
+        @Param({"64", "256", "1024"})
+        int size;
+
+        Grid grid;
+        SearchContext context;
+
+        @Setup
+        public void setUp() {
+            this.grid = this.map.create(this.size);
+            this.context = new SearchContext(this.grid.size());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Finder {
+        @Param({"OPEN", "RANDOM", "MAZE"})
+        Maps map;
+
+        @Param({"64", "256", "1024"})
+        int size;
+
+        @Param({"A_STAR", "A_STAR_LANDMARKS", "JUMP_POINT_SEARCH", "JUMP_POINT_SEARCH_PLUS", "BIDIRECTIONAL_A_STAR", "PARALLEL_BIDIRECTIONAL_A_STAR", "ANYTIME_A_STAR", "THETA_STAR", "LAZY_THETA_STAR"})
+        SearchAlgorithm algorithm;
+
+        PathFinder finder;
+
+        @Setup
+        public void setUp() {
+            this.finder = this.algorithm.create(this.map.create(this.size));
+        }
+    }
+}
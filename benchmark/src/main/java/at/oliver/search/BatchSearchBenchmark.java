@@ -0,0 +1,65 @@
+package at.oliver.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code BatchSearch} depending on the amount of threads, in queries per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BatchSearchBenchmark {
+    private static final int SIZE = 512;
+    private static final int QUERIES = 256;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private ForkJoinPool pool;
+    private BatchSearch search;
+    private final int[] starts = new int[QUERIES], targets = new int[QUERIES];
+
+    @Setup
+    public void setUp() {
+        Grid grid = Maps.RANDOM.create(SIZE).snapshot();
+        this.pool = new ForkJoinPool(this.threads);
+        this.search = new BatchSearch(grid, SearchAlgorithm.A_STAR, this.pool);
+
+        Random random = new Random(7);
+        for(int i = 0; i < QUERIES; i++) {
+            this.starts[i] = random.nextInt(grid.size());
+            this.targets[i] = random.nextInt(grid.size());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public SearchResult[] findPaths() {
+        return this.search.findPaths(this.starts, this.targets);
+    }
+}
@@ -0,0 +1,81 @@
+package at.oliver.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two inner parts of A*: expanding a single cell and following the explorers back to the start.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ExpansionBenchmark {
+    private static final int SIZE = 2048;
+
+    /**
+     * Expands the next cell of a long search, restarted whenever it finishes.
+     */
+    @Benchmark
+    public boolean expandCell(Search state) {
+        if(!state.search.step()) {
+            state.search = state.newSearch();
+        }
+        return state.search.isFinished();
+    }
+
+    /**
+     * Reconstructs a path of 1024 cells.
+     */
+    @Benchmark
+    public int[] tracePath(Explorers state) {
+        return AStar.tracePath(state.explorer, 1023);
+    }
+
+    @State(Scope.Thread)
+    public static class Search {
+        @Param({"OPEN", "RANDOM", "MAZE"})
+        Maps map;
+
+        private Grid grid;
+        private SearchContext context;
+        AStar search;
+
+        @Setup
+        public void setUp() {
+            this.grid = this.map.create(SIZE);
+            this.context = new SearchContext(this.grid.size());
+            this.search = this.newSearch();
+        }
+
+        AStar newSearch() {
+            return new AStar(this.grid, 0, 0, SIZE - 1, SIZE - 1, this.context);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Explorers {
+        int[] explorer;  // every cell explored from the previous one
+
+        @Setup
+        public void setUp() {
+            this.explorer = new int[SIZE];
+            this.explorer[0] = -1;
+            for(int index = 1; index < this.explorer.length; index++) {
+                this.explorer[index] = index - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package at.oliver.search;
+
+import java.util.Random;
+
+/**
+ * Generates the grids of the benchmarks. Every map is created from a fixed seed, so runs are comparable.
+ */
+public enum Maps {
+    /**
+     * Without any barrier.
+     */
+    OPEN {
+        @Override
+        public Grid create(int size) {
+            return new Grid(size, size);
+        }
+    },
+    /**
+     * 20 % of the cells are barriers, scattered randomly.
+     */
+    RANDOM {
+        @Override
+        public Grid create(int size) {
+            Grid grid = new Grid(size, size);
+            Random random = new Random(SEED);
+            for(int index = 0; index < grid.size(); index++) {
+                if(random.nextInt(5) == 0) {
+                    grid.setTerrain(index, Grid.BARRIER);
+                }
+            }
+            return free(grid);
+        }
+    },
+    /**
+     * Perfect maze with corridors of one cell, carved by a randomized depth-first search.
+     */
+    MAZE {
+        @Override
+        public Grid create(int size) {
+            Grid grid = new Grid(size, size);
+            for(int index = 0; index < grid.size(); index++) {
+                grid.setTerrain(index, Grid.BARRIER);
+            }
+
+            int rooms = (size + 1) / 2;  // rooms on even positions, walls between them
+            int[] stack = new int[rooms * rooms];
+            boolean[] visited = new boolean[rooms * rooms];
+            int[] directions = new int[4];
+            Random random = new Random(SEED);
+
+            int depth = 0;
+            stack[depth++] = 0;
+            visited[0] = true;
+            grid.setBarrier(0, 0, false);
+            while(depth > 0) {
+                int room = stack[depth - 1];
+                int x = room % rooms;
+                int y = room / rooms;
+
+                int count = 0;
+                for(int d = 0; d < 4; d++) {  // straight directions
+                    int nx = x + Directions.DX[d];
+                    int ny = y + Directions.DY[d];
+                    if(nx >= 0 && ny >= 0 && nx < rooms && ny < rooms && !visited[ny * rooms + nx]) {
+                        directions[count++] = d;
+                    }
+                }
+                if(count == 0) {
+                    depth--;
+                    continue;
+                }
+
+                int d = directions[random.nextInt(count)];
+                int nx = x + Directions.DX[d];
+                int ny = y + Directions.DY[d];
+                grid.setBarrier(2 * x + Directions.DX[d], 2 * y + Directions.DY[d], false);  // wall between the rooms
+                grid.setBarrier(2 * nx, 2 * ny, false);
+                visited[ny * rooms + nx] = true;
+                stack[depth++] = ny * rooms + nx;
+            }
+            return free(grid);
+        }
+    };
+
+    private static final long SEED = 42;
+
+    /**
+     * @param size width and height of the map
+     * @return grid whose top left and bottom right cells are walkable
+     */
+    public abstract Grid create(int size);
+
+    private static Grid free(Grid grid) {
+        grid.setBarrier(0, 0, false);
+        grid.setBarrier(grid.getWidth() - 1, grid.getHeight() - 1, false);
+        return grid;
+    }
+}
@@ -1,25 +1,31 @@
 package at.oliver;
 
 import at.oliver.map.GridMap;
+import at.oliver.node.NodeType;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.Slider;
 import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 
-import static at.oliver.node.Cell.NodeType;
-
 public class Controller {
     @FXML
     public CheckMenuItem selfExploreItem, showValuesItem, onlyShowPathItem;
+    @FXML
+    private MenuItem openMapItem;
 
     // toggle buttons
     @FXML
@@ -40,6 +46,8 @@ public class Controller {
     @FXML
     private GridMap gridMap;
 
+    private final FileChooser mapChooser = new FileChooser();
+
     private final EventHandler<ActionEvent> onlyShowPathListener = actionEvent -> {
         if(this.onlyShowPathItem.isSelected()) {
             this.delaySlider.setValue(0);
@@ -64,6 +72,35 @@ public class Controller {
         }
     }
 
+    @FXML
+    private void openMap() {
+        File file = this.mapChooser.showOpenDialog(this.pane.getScene().getWindow());
+        if(file == null) {  // cancelled
+            return;
+        }
+        try {
+            this.gridMap.loadMap(file.toPath());
+            this.disableDrawingButtons(false);
+        }
+        catch(IOException | IllegalArgumentException e) {
+            new Alert(Alert.AlertType.ERROR, e.getMessage()).showAndWait();
+        }
+    }
+
+    @FXML
+    private void saveMap() {
+        File file = this.mapChooser.showSaveDialog(this.pane.getScene().getWindow());
+        if(file == null) {  // cancelled
+            return;
+        }
+        try {
+            this.gridMap.saveMap(file.toPath());
+        }
+        catch(IOException e) {
+            new Alert(Alert.AlertType.ERROR, e.getMessage()).showAndWait();
+        }
+    }
+
     @FXML
     private void exit() {
         Platform.exit();
@@ -77,13 +114,13 @@ public class Controller {
     @FXML
     private void runClicked() {
         this.disableDrawingButtons(true);
-        Controller.disable(true, run, reset);
+        Controller.disable(true, run);  // reset stays enabled and stops the search
         this.gridMap.startAlgorithm();
     }
 
     @FXML
     private void resetClicked() {
-        this.gridMap.setGridSize(this.gridMap.getGridSize());
+        this.gridMap.clear();
         this.disableDrawingButtons(false);
         Controller.disable(true, this.run);
     }
@@ -102,11 +139,15 @@ public class Controller {
 
         Controller.disable(true, this.run);
 
+        this.mapChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Grid maps", "*.gridmap"));
+
         this.gridMap.setController(this);
+        this.gridMap.getMetrics().register("GridMap");  // visible in JConsole or any other JMX client
     }
 
     public void disableDrawingButtons(boolean bool) {
         Controller.disable(bool, startButton, targetButton, barrierButton, eraseButton);
+        this.openMapItem.setDisable(bool);  // the grid can't be replaced while the algorithm runs
     }
 
     public NodeType getSource(Button b) {
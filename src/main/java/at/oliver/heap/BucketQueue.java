@@ -0,0 +1,194 @@
+package at.oliver.heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Bucket queue (Dial's algorithm) of {@code int} values for small, integer costs. Keys are packed like the searches
+ * pack them: f_cost in the upper, h_cost in the lower 32 bits. Values are put in a ring of buckets by their f_cost,
+ * so adding and removing takes constant time as long as all contained f_costs lie within the span of the ring.
+ * <p>
+ * Within the bucket of the lowest f_cost values are ordered by h_cost, the same tie-breaking as the other heaps:
+ * the bucket is sorted once when it is reached, later values are inserted from the top. With a consistent heuristic,
+ * values added to the lowest bucket always have a lower h_cost than the explored one, so they end up on top right away.
+ * <p>
+ * Like {@code IntMinHeap}, a value whose key decreases is simply added again.
+ * <p>
+ * An f_cost outside the span of the ring, added by a search which explores cells out of order or with an inconsistent
+ * heuristic, goes to an {@code IntMinHeap} aside; removing takes the lower of both firsts. Such entries cost
+ * logarithmic time, the queue only stays fast as long as they are rare.
+ *
+ * @see IntMinHeap
+ */
+public class BucketQueue implements IntHeap {
+    private final int mask;  // amount of buckets - 1
+    private final long[][] buckets;  // entries: h_cost in the upper, value in the lower 32 bits
+    private final int[] sizes;
+    private final boolean[] sorted;  // sorted descending by h_cost, the lowest on top
+    private final IntMinHeap overflow = new IntMinHeap(16);  // entries outside the span of the ring
+    private int current;  // f_cost of the bucket, which is looked at first
+    private int size;  // entries in the buckets
+
+    /**
+     * @param span maximum difference between the lowest and the highest f_cost contained at the same time,
+     *             for searches with consistent heuristic twice the maximum cost of an edge
+     */
+    public BucketQueue(int span) {
+        if(span < 0 || span >= 1 << 30) {
+            throw new IllegalArgumentException("Error at BucketQueue: span must be within range 0 to " + ((1 << 30) - 1));
+        }
+        int amount = Integer.highestOneBit(Math.max(span, 1)) << 1;  // power of two larger than the span
+        this.mask = amount - 1;
+        this.buckets = new long[amount][];
+        this.sizes = new int[amount];
+        this.sorted = new boolean[amount];
+        for(int i = 0; i < amount; i++) {
+            this.buckets[i] = new long[16];
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size + this.overflow.size();
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.sizes, 0);
+        Arrays.fill(this.sorted, false);
+        this.size = 0;
+        this.overflow.clear();
+    }
+
+    /**
+     * Adds the value with the given key. Doesn't look for an earlier entry of the value, which stays in the queue.
+     *
+     * @param value non-negative value
+     * @param key   f_cost in the upper, h_cost in the lower 32 bits
+     */
+    @Override
+    public void add(int value, long key) {
+        int f_cost = (int) (key >>> 32);
+        if(this.size == 0) {
+            this.current = f_cost;
+        }
+        else if(f_cost < this.current) {
+            this.advance();
+            if(this.current - f_cost > this.mask - this.highestDistance()) {
+                this.overflow.add(value, key);
+                return;
+            }
+            this.current = f_cost;
+        }
+        else if(f_cost - this.current > this.mask) {
+            this.advance();
+            if(f_cost - this.current > this.mask) {
+                this.overflow.add(value, key);
+                return;
+            }
+        }
+
+        int bucket = f_cost & this.mask;
+        long[] entries = this.buckets[bucket];
+        int index = this.sizes[bucket]++;
+        if(index == entries.length) {
+            entries = this.buckets[bucket] = Arrays.copyOf(entries, entries.length * 2);
+        }
+        long entry = (key & 0xffffffffL) << 32 | value;
+
+        if(this.sorted[bucket]) {  // moving entries with lower h_cost up until the position of the new entry is found
+            while(index > 0 && entries[index - 1] < entry) {
+                entries[index] = entries[index - 1];
+                index--;
+            }
+        }
+        entries[index] = entry;
+        this.size++;
+    }
+
+    @Override
+    public long firstKey() {
+        if(this.isOverflowFirst()) {
+            return this.overflow.firstKey();
+        }
+        long entry = this.top();
+        return (long) this.current << 32 | entry >>> 32;
+    }
+
+    @Override
+    public int removeFirst() {
+        if(this.isOverflowFirst()) {
+            return this.overflow.removeFirst();
+        }
+        long entry = this.top();
+        int bucket = this.current & this.mask;
+        if(--this.sizes[bucket] == 0) {
+            this.sorted[bucket] = false;  // will be filled with a higher f_cost next
+        }
+        this.size--;
+        return (int) entry;
+    }
+
+    /**
+     * @return {@code true} if the first entry lies outside the span, ties are left to the buckets
+     */
+    private boolean isOverflowFirst() {
+        if(this.overflow.isEmpty()) {
+            return false;
+        }
+        if(this.size == 0) {
+            return true;
+        }
+        long entry = this.top();
+        return this.overflow.firstKey() < ((long) this.current << 32 | entry >>> 32);
+    }
+
+    /**
+     * @return the entry with the lowest h_cost in the lowest bucket
+     */
+    private long top() {
+        if(this.size == 0) {
+            throw new NoSuchElementException("Error at BucketQueue: queue is empty");
+        }
+        this.advance();
+
+        int bucket = this.current & this.mask;
+        long[] entries = this.buckets[bucket];
+        if(!this.sorted[bucket]) {
+            Arrays.sort(entries, 0, this.sizes[bucket]);
+            for(int i = 0, j = this.sizes[bucket] - 1; i < j; i++, j--) {  // descending, the lowest h_cost on top
+                long entry = entries[i];
+                entries[i] = entries[j];
+                entries[j] = entry;
+            }
+            this.sorted[bucket] = true;
+        }
+        return entries[this.sizes[bucket] - 1];
+    }
+
+    /**
+     * Moves on to the lowest non-empty bucket.
+     */
+    private void advance() {
+        while(this.size > 0 && this.sizes[this.current & this.mask] == 0) {
+            this.current++;
+        }
+    }
+
+    /**
+     * @return distance from the current to the highest non-empty bucket
+     */
+    private int highestDistance() {
+        for(int distance = this.mask; distance > 0; distance--) {
+            if(this.sizes[(this.current + distance) & this.mask] > 0) {
+                return distance;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BucketQueue{" + "size=" + this.size() + ", " + "buckets=" + this.buckets.length + "}";
+    }
+}
@@ -0,0 +1,230 @@
+package at.oliver.heap;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed MinHeap of {@code int} values in the range {@code 0} to {@code capacity - 1}, ordered by a {@code long} key.
+ * Like {@code MinHeap} it keeps track of the position of every value, but in a primitive {@code int[]} instead of
+ * the items themselves, so a contained value can be updated in place ({@link IndexedIntHeap#decreaseKey}).
+ * <p>
+ * Either a binary heap or a 4-ary heap, which is flatter and compares the children of one item within the same cache line.
+ *
+ * @see MinHeap
+ */
+public class IndexedIntHeap implements IntHeap {
+    private final int shift;  // log2 of the amount of children per item
+    private final long[] keys;  // by position
+    private final int[] values;  // by position
+    private final int[] positions;  // by value: position + 1, 0 if not contained
+    private int size;
+
+    private IndexedIntHeap(int capacity, int shift) {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("Error at IndexedIntHeap: capacity must not be negative");
+        }
+        this.shift = shift;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.positions = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param capacity values must be smaller than the capacity
+     * @return indexed heap with two children per item
+     */
+    public static IndexedIntHeap binary(int capacity) {
+        return new IndexedIntHeap(capacity, 1);
+    }
+
+    /**
+     * @param capacity values must be smaller than the capacity
+     * @return indexed heap with four children per item
+     */
+    public static IndexedIntHeap quaternary(int capacity) {
+        return new IndexedIntHeap(capacity, 2);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes all values, takes time proportional to the amount of contained values.
+     */
+    @Override
+    public void clear() {
+        for(int i = 0; i < this.size; i++) {
+            this.positions[this.values[i]] = 0;
+        }
+        this.size = 0;
+    }
+
+    public boolean contains(int value) {
+        return this.positions[value] != 0;
+    }
+
+    /**
+     * @param value contained value
+     * @return current key of the value
+     */
+    public long getKey(int value) {
+        if(!this.contains(value)) {
+            throw new NoSuchElementException("Error at IndexedIntHeap: " + value + " is not contained");
+        }
+        return this.keys[this.positions[value] - 1];
+    }
+
+    /**
+     * Adds the value or, if it is already contained, decreases its key. A higher key for a contained value is ignored.
+     *
+     * @param value value smaller than the capacity
+     * @param key   key to be ordered by
+     */
+    @Override
+    public void add(int value, long key) {
+        if(this.contains(value)) {
+            if(key < this.keys[this.positions[value] - 1]) {
+                this.decreaseKey(value, key);
+            }
+            return;
+        }
+        this.sortUpItem(this.size++, value, key);
+    }
+
+    /**
+     * Lowers the key of a contained value, the value is sorted up accordingly.
+     *
+     * @param value contained value
+     * @param key   new key, must not be higher than the current key
+     */
+    public void decreaseKey(int value, long key) {
+        if(key > this.getKey(value)) {
+            throw new IllegalArgumentException("Error at IndexedIntHeap: key of " + value + " must not increase");
+        }
+        this.sortUpItem(this.positions[value] - 1, value, key);
+    }
+
+    /**
+     * Adds the value or, if it is already contained, changes its key to a lower or higher one.
+     *
+     * @param value value smaller than the capacity
+     * @param key   key to be ordered by
+     */
+    public void update(int value, long key) {
+        if(!this.contains(value)) {
+            this.sortUpItem(this.size++, value, key);
+            return;
+        }
+        int index = this.positions[value] - 1;
+        if(key < this.keys[index]) {
+            this.sortUpItem(index, value, key);
+        }
+        else {
+            this.sortDownItem(index, value, key);
+        }
+    }
+
+    /**
+     * Removes the value if it is contained.
+     *
+     * @param value value smaller than the capacity
+     * @return {@code true} if the value was contained
+     */
+    public boolean remove(int value) {
+        if(!this.contains(value)) {
+            return false;
+        }
+        int index = this.positions[value] - 1;
+        this.positions[value] = 0;
+
+        // put last item on the free position and sort it up or down
+        if(--this.size > index) {
+            int last = this.values[this.size];
+            long key = this.keys[this.size];
+            if(index > 0 && key < this.keys[(index - 1) >> this.shift]) {
+                this.sortUpItem(index, last, key);
+            }
+            else {
+                this.sortDownItem(index, last, key);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long firstKey() {
+        if(this.size == 0) {
+            throw new NoSuchElementException("Error at IndexedIntHeap: heap is empty");
+        }
+        return this.keys[0];
+    }
+
+    @Override
+    public int removeFirst() {
+        if(this.size == 0) {
+            throw new NoSuchElementException("Error at IndexedIntHeap: heap is empty");
+        }
+        int first = this.values[0];
+        this.positions[first] = 0;
+
+        // put last item on the first position and sort down
+        if(--this.size > 0) {
+            this.sortDownItem(0, this.values[this.size], this.keys[this.size]);
+        }
+        return first;
+    }
+
+    /**
+     * Moves parents down until the position of the item is found, starting at the given position.
+     */
+    private void sortUpItem(int index, int value, long key) {
+        while(index > 0) {
+            int parent = (index - 1) >> this.shift;
+            if(this.keys[parent] <= key) {
+                break;
+            }
+            this.set(index, this.values[parent], this.keys[parent]);
+            index = parent;
+        }
+        this.set(index, value, key);
+    }
+
+    /**
+     * Moves the smallest children up until the position of the item is found, starting at the given position.
+     */
+    private void sortDownItem(int index, int value, long key) {
+        while(true) {
+            int firstChild = (index << this.shift) + 1;
+            if(firstChild >= this.size) {  // doesn't have children
+                break;
+            }
+            int lastChild = Math.min(firstChild + (1 << this.shift), this.size);
+
+            int swapIndex = firstChild;
+            for(int child = firstChild + 1; child < lastChild; child++) {
+                if(this.keys[child] < this.keys[swapIndex]) {
+                    swapIndex = child;
+                }
+            }
+            if(key <= this.keys[swapIndex]) {
+                break;
+            }
+            this.set(index, this.values[swapIndex], this.keys[swapIndex]);
+            index = swapIndex;
+        }
+        this.set(index, value, key);
+    }
+
+    private void set(int index, int value, long key) {
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.positions[value] = index + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedIntHeap{" + "size=" + this.size + ", " + "children=" + (1 << this.shift) + "}";
+    }
+}
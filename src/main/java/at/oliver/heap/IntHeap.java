@@ -0,0 +1,39 @@
+package at.oliver.heap;
+
+/**
+ * Priority queue of {@code int} values (e.g. cell indices) ordered by a {@code long} key, smallest key first.
+ * Used as open list of the searches; implementations differ in how a smaller key for a contained value is handled.
+ *
+ * @see IntMinHeap
+ * @see IndexedIntHeap
+ */
+public interface IntHeap {
+    int size();
+
+    default boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    void clear();
+
+    /**
+     * Adds the value with the given key. If the value is already contained with a higher key,
+     * it will be ordered by the smaller key from now on.
+     *
+     * @param value non-negative value
+     * @param key   key to be ordered by
+     */
+    void add(int value, long key);
+
+    /**
+     * @return the smallest key of the heap
+     */
+    long firstKey();
+
+    /**
+     * Removes the value with the smallest key and returns it.
+     *
+     * @return value with the smallest key
+     */
+    int removeFirst();
+}
@@ -0,0 +1,107 @@
+package at.oliver.heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * MinHeap of {@code int} values ordered by a {@code long} key, stored in two primitive arrays.
+ * Unlike {@code MinHeap} it doesn't keep track of the positions of its values: instead of updating
+ * a value, it can be added again with a smaller key and the outdated entry is skipped when removed.
+ * Grows if the capacity is exceeded.
+ *
+ * @see IndexedIntHeap
+ */
+public class IntMinHeap implements IntHeap {
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public IntMinHeap(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.size = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Adds the value with the given key. Doesn't look for an earlier entry of the value, which stays in the heap.
+     *
+     * @param value value to be added
+     * @param key   key to be ordered by
+     */
+    @Override
+    public void add(int value, long key) {
+        if(this.size == this.keys.length) {
+            int capacity = this.keys.length + (this.keys.length >> 1) + 1;
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        // moving parents down until the position of the new item is found
+        int index = this.size++;
+        while(index > 0) {
+            int parent = (index - 1) >>> 1;
+            if(this.keys[parent] <= key) {
+                break;
+            }
+            this.keys[index] = this.keys[parent];
+            this.values[index] = this.values[parent];
+            index = parent;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+    }
+
+    @Override
+    public long firstKey() {
+        if(this.size == 0) {
+            throw new NoSuchElementException("Error at IntMinHeap: heap is empty");
+        }
+        return this.keys[0];
+    }
+
+    @Override
+    public int removeFirst() {
+        if(this.size == 0) {
+            throw new NoSuchElementException("Error at IntMinHeap: heap is empty");
+        }
+        int first = this.values[0];
+
+        // put last item on the first position and sort down
+        long key = this.keys[--this.size];
+        int value = this.values[this.size];
+        int index = 0;
+        int half = this.size >>> 1;  // items from here on don't have children
+        while(index < half) {
+            int child = 2 * index + 1;
+            if(child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+                child++;
+            }
+            if(key <= this.keys[child]) {
+                break;
+            }
+            this.keys[index] = this.keys[child];
+            this.values[index] = this.values[child];
+            index = child;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+
+        return first;
+    }
+
+    @Override
+    public String toString() {
+        return "IntMinHeap{" + "size=" + this.size + "}";
+    }
+}
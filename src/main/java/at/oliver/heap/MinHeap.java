@@ -1,19 +1,21 @@
 package at.oliver.heap;
 
 import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 /**
- * MinHeap
+ * MinHeap of items, which keep track of their own position. Grows if the capacity is exceeded.
  *
  * @param <E>
+ * @see IndexedIntHeap
  */
 @SuppressWarnings("unchecked")
 public class MinHeap<E extends Comparable<E> & IndexInHeap> {
-    private final Object[] items;
+    private Object[] items;
     private int size;
 
     public MinHeap(int capacity) {
-        this.items = new Object[capacity];
+        this.items = new Object[Math.max(capacity, 1)];
         this.size = 0;
     }
 
@@ -22,11 +24,14 @@ public class MinHeap<E extends Comparable<E> & IndexInHeap> {
     }
 
     public void add(E item) {
+        if(this.size == this.items.length) {
+            this.items = Arrays.copyOf(this.items, this.items.length + (this.items.length >> 1) + 1);
+        }
         this.items[this.size] = item;
         item.setHeapIndex(this.size);
+        this.size++;
 
         this.sortUpItem(item);
-        this.size++;
     }
 
     /**
@@ -35,19 +40,26 @@ public class MinHeap<E extends Comparable<E> & IndexInHeap> {
      * @return smallest item of the Heap.
      */
     public E removeFirst() {
+        if(this.size == 0) {
+            throw new NoSuchElementException("Error at MinHeap: heap is empty");
+        }
         E firstItem = (E) this.items[0];
 
         // put last item on the first position and sort down
         this.items[0] = this.items[--this.size];
-        ((E) this.items[0]).setHeapIndex(0);
-        this.sortDownItem((E) this.items[0]);
+        this.items[this.size] = null;
+        if(this.size > 0) {
+            ((E) this.items[0]).setHeapIndex(0);
+            this.sortDownItem((E) this.items[0]);
+        }
 
         return firstItem;
     }
 
     @SuppressWarnings("unused")  // for testing
     public boolean contains(E item) {
-        return item == items[item.getHeapIndex()];
+        int index = item.getHeapIndex();
+        return index >= 0 && index < this.size && item == this.items[index];
     }
 
     public void updateItem(E item) {  // if compareTo value of an item has changed
@@ -55,7 +67,7 @@ public class MinHeap<E extends Comparable<E> & IndexInHeap> {
     }
 
     private void sortUpItem(E childItem) {
-        while(true) {
+        while(childItem.getHeapIndex() > 0) {  // root doesn't have a parent
             E parentItem = (E) this.items[(childItem.getHeapIndex() - 1) / 2];  // index of the parent
             if(childItem.compareTo(parentItem) < 0)  // value of child is smaller than value of parent
             {
@@ -1,30 +1,35 @@
 package at.oliver.map;
 
 import at.oliver.Controller;
-import at.oliver.heap.MinHeap;
-import at.oliver.node.Cell;
+import at.oliver.node.NodeType;
+import at.oliver.search.AStar;
+import at.oliver.search.Distance;
+import at.oliver.search.Grid;
+import at.oliver.search.MapFile;
+import at.oliver.search.PathCache;
+import at.oliver.search.SearchBudget;
+import at.oliver.search.SearchListener;
+import at.oliver.search.SearchMetrics;
+import at.oliver.search.SearchResult;
+import javafx.animation.AnimationTimer;
 import javafx.beans.NamedArg;
 import javafx.beans.value.ChangeListener;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.event.EventHandler;
-import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
 import javafx.scene.Cursor;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import javafx.scene.text.TextAlignment;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import static at.oliver.node.Cell.NodeType;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * A {@code GridMap} is a gridded {@code Canvas} with one start and end point,
@@ -36,29 +41,38 @@ import static at.oliver.node.Cell.NodeType;
  */
 public class GridMap extends HBox implements EventHandler<Event> {
     private static final int GRID_SIZE_MIN = 6;
-    private static final int GRID_SIZE_MAX = 40;
+    private static final int GRID_SIZE_MAX = 4096;
     private static final Color PATH_COLOR = Color.valueOf("7662c2");
+    private static final int NO_CELL = -1;
+    private static final int SLOW_SEARCH_MILLIS = 100;  // without delay
+    private static final int PATH_CACHE_CAPACITY = 256;
+    private static final long FRAME_BUDGET_NANOS = 8_000_000;  // rendering per pulse, the rest waits for the next one
+    private static final double ZOOM_STEP = 1.25;  // per scrolled notch
 
     private final Canvas map;
-    private final GraphicsContext gc;
+    private final GridRenderer renderer;
+    private final ConcurrentLinkedQueue<Runnable> renderQueue = new ConcurrentLinkedQueue<>();  // drawing of the search, done on the FX thread
+    private final SearchMetrics metrics = new SearchMetrics(SLOW_SEARCH_MILLIS);  // of all searches on this map
 
-    private Cell start = new Cell(NodeType.START);
-    private Cell target = new Cell(NodeType.TARGET);
+    private int start = NO_CELL;  // index of the start cell in the grid
+    private int target = NO_CELL;  // index of the target cell in the grid
     private NodeType selectedNodeType;
     private final ChangeListener<Boolean> buttonFocusListener = (observableValue, oldValue, newValue) -> {
         if(!newValue) {  // no button is selected, nothing will be drawn
             this.setSelectedNodeType(null);
         }
     };
-    private Cell[][] grid;  // stores state of all cells
+    private Grid grid;  // stores terrain of all cells
+    private PathCache pathCache;  // results of the grid, dropped on every change of its terrain
     private int gridSize;
-    private double cellSize;
+    private double panX, panY;  // last mouse position while panning
     private Controller controller;
     private final EventHandler<ActionEvent> buttonListener = actionEvent -> {  // buttons for drawing on grid
         assert actionEvent.getSource() instanceof Button;
         this.setSelectedNodeType(this.controller.getSource((Button) actionEvent.getSource()));
     };
-    private int delay;  // in milliseconds
+    private volatile int delay;  // in milliseconds, read by the Algorithm
+    private Algorithm algorithm;  // running search, null if none
 
     // initializer
     {
@@ -79,7 +93,7 @@ public class GridMap extends HBox implements EventHandler<Event> {
      * Constructs and initializes a gridded, white {@code GridMap}.
      *
      * @param size     width and height of the {@code GridMap}
-     * @param gridSize amount of rows and columns to be drawn, min: {@value GRID_SIZE_MIN}, max: {@value GRID_SIZE_MAX}
+     * @param gridSize amount of rows and columns, min: {@value GRID_SIZE_MIN}, max: {@value GRID_SIZE_MAX}
      * @see Canvas
      */
     public GridMap(@NamedArg("size") int size, @NamedArg("gridSize") int gridSize) {
@@ -90,26 +104,16 @@ public class GridMap extends HBox implements EventHandler<Event> {
         this.map.setOnMouseDragged(this);
         this.map.setOnScroll(this);
 
-        this.gc = this.map.getGraphicsContext2D();
-        this.gc.setStroke(Color.valueOf("161616"));
-
-        this.setGridSize(gridSize);
-    }
+        this.renderer = new GridRenderer(this.map);
 
-    /**
-     * Calculates the distance between two points by only traveling either crosswise or straight across a {@code Cell}
-     *
-     * @param x1 x-position of first point
-     * @param y1 y-position of first point
-     * @param x2 x-position of second point
-     * @param y2 y-position of second point
-     * @return distance between the two points
-     */
-    private static int getDistance(int x1, int y1, int x2, int y2) {
-        int diffX = Math.abs(x1 - x2);
-        int diffY = Math.abs(y1 - y2);
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                GridMap.this.render();
+            }
+        }.start();
 
-        return diffX > diffY ? 14 * diffY + 10 * (diffX - diffY) : 14 * diffX + 10 * (diffY - diffX);
+        this.setGridSize(gridSize);
     }
 
     public int getGridSize() {
@@ -123,128 +127,145 @@ public class GridMap extends HBox implements EventHandler<Event> {
 
         this.gridSize = size;
 
-        grid = new Cell[this.gridSize][this.gridSize];
-
-        this.clearCanvas();
-        this.drawGrid();
+        this.newGrid(size, size);
     }
 
     /**
-     * Clears the {@code Canvas} and attributes
+     * Replaces the grid by an empty one of the same size.
      */
-    private void clearCanvas() {
-        this.gc.clearRect(0, 0, this.map.getWidth(), this.map.getHeight());
-
-        this.start.setCoordinates(null);
-        this.target.setCoordinates(null);
+    public void clear() {
+        this.newGrid(this.grid.getWidth(), this.grid.getHeight());
+    }
 
-        for(int i = 0; i < this.gridSize; i++) {
-            for(int j = 0; j < this.gridSize; j++) {
-                this.grid[i][j] = new Cell(NodeType.BASIC);
-            }
+    /**
+     * Replaces the grid by an empty one of the given size, shown as a whole.
+     */
+    private void newGrid(int width, int height) {
+        if(this.algorithm != null) {  // searching the previous grid
+            this.algorithm.cancel();
+            this.algorithm = null;
+            this.map.setOnMouseClicked(this);  // removes the EventHandler of a self-explored search
         }
+        this.renderQueue.clear();  // drawing of a finished search, which hasn't been rendered yet
+
+        this.grid = new Grid(width, height);
+        this.pathCache = new PathCache(this.grid, PATH_CACHE_CAPACITY);  // filled by the Algorithm, which searches itself
+        this.renderer.reset(width, height, NodeType.BASIC.color);
 
-        this.start = new Cell(NodeType.START);
-        this.target = new Cell(NodeType.TARGET);
+        this.start = NO_CELL;
+        this.target = NO_CELL;
     }
 
     /**
-     * Draws a quadratic grid with side length according to the gridSize
+     * Queues drawing for the FX thread, may be called from any thread. Queued drawing is rendered in order, all of it
+     * at the next pulse unless it takes longer than {@value FRAME_BUDGET_NANOS} nanoseconds.
      *
-     * @see GridMap#gridSize
+     * @param drawing drawing to be run on the FX thread
      */
-    private void drawGrid() {
-        // size was tested via EventHandler or internally
-        assert this.gridSize >= GRID_SIZE_MIN;
-        assert this.gridSize <= GRID_SIZE_MAX;
-
-        double increment = this.map.getWidth() / this.gridSize;
-
-        this.gc.setLineWidth(increment / 8);
+    private void renderLater(Runnable drawing) {
+        this.renderQueue.add(drawing);
+    }
 
-        // height and width must be equal, tested in initializer
-        for(double x = 0; x < this.map.getWidth() + this.gc.getLineWidth(); x += increment) {
-            for(double y = 0; y < this.map.getHeight() + this.gc.getLineWidth(); y += increment) {
-                this.gc.strokeLine(x, y, x, y + this.map.getWidth());
-                this.gc.strokeLine(x, y, x + this.map.getWidth(), y);
-            }
+    /**
+     * Runs the queued drawing and repaints what has changed, called once per pulse by the {@code AnimationTimer}.
+     */
+    private void render() {
+        long begin = System.nanoTime();
+        Runnable drawing;
+        while(System.nanoTime() - begin < FRAME_BUDGET_NANOS && (drawing = this.renderQueue.poll()) != null) {
+            drawing.run();
         }
-        this.cellSize = increment;
+        this.renderer.repaint();
     }
 
     /**
-     * Paints the cell on the {@code GridMap} and sets its type to the given parameter.
+     * Paints the cell on the {@code GridMap} and sets its terrain according to the given type.
      *
+     * @param x    x-position
+     * @param y    y-position
      * @param type type of the node, which it will be set to
      */
-    public void paintCell(Cell cell, NodeType type, boolean changeType) {
-        this.paintSquare(cell.getX(), cell.getY(), type.color);
+    public void paintCell(int x, int y, NodeType type) {
+        this.renderer.setCell(x, y, type.color);
+
+        this.grid.setBarrier(x, y, type == NodeType.BARRIER);
+    }
 
-        if(changeType) {
-            this.grid[cell.getX()][cell.getY()].setType(type);
+    /**
+     * For opened, closed or path cells
+     *
+     * @param x      x-position
+     * @param y      y-position
+     * @param color  color to be drawn
+     * @param g_cost distance from the start, drawn if "Show values" is selected
+     * @param h_cost distance to the target, drawn if "Show values" is selected
+     */
+    private void paintCell(int x, int y, Color color, int g_cost, int h_cost) {
+        if(!this.controller.onlyShowPathItem.isSelected() || color.equals(GridMap.PATH_COLOR)) {
+            if(this.controller.showValuesItem.isSelected()) {  // drawing cost of cells if menu item was selected
+                this.renderer.setCell(x, y, color, g_cost, h_cost);
+            }
+            else {
+                this.renderer.setCell(x, y, color);
+            }
         }
     }
 
     /**
-     * Paints the cell on the {@code GridMap} to its attribute color
+     * Writes the grid with start and target to a map file.
      *
-     * @param cell cell to be painted
+     * @param file file to be written, replaced if it exists
+     * @throws IOException if the file can't be written
+     * @see MapFile
      */
-    private void paintCell(Cell cell) {
-        this.paintCell(cell, cell.getColor());
+    public void saveMap(Path file) throws IOException {
+        new MapFile(this.grid, this.start, this.target).write(file);
     }
 
     /**
-     * For opened or closed nodes
+     * Replaces the grid by the one of a map file and paints it.
      *
-     * @param cell  focused cell
-     * @param color color to be drawn
+     * @param file file to be read
+     * @throws IOException              if the file can't be read or is no valid map file
+     * @throws IllegalArgumentException if the width or height of the grid is larger than {@value GRID_SIZE_MAX}
+     * @see MapFile
      */
-    private void paintCell(Cell cell, Color color) {  // for opened or closed nodes
-        assert cell.getF_cost() > 0;
+    public void loadMap(Path file) throws IOException {
+        MapFile mapFile = MapFile.read(file);
+        Grid loaded = mapFile.getGrid();
+        if(loaded.getWidth() > GRID_SIZE_MAX || loaded.getHeight() > GRID_SIZE_MAX) {
+            throw new IllegalArgumentException("Error at Map: grids larger than " + GRID_SIZE_MAX + " cells per side can't be shown");
+        }
+        this.newGrid(loaded.getWidth(), loaded.getHeight());  // the grid is copied cell by cell so it can be edited
 
-        if(!this.controller.onlyShowPathItem.isSelected() || color.equals(GridMap.PATH_COLOR)) {
-            GridMap.this.paintSquare(cell.getX(), cell.getY(), color);
-            if(GridMap.this.controller.showValuesItem.isSelected()) {  // drawing cost of cells if menu item was selected
-                GridMap.this.gc.setFill(Color.valueOf("161616"));
-                GridMap.this.gc.setFont(new Font((int) (GridMap.this.cellSize * 4 / 10)));
-                GridMap.this.gc.setTextAlign(TextAlignment.CENTER);
-                GridMap.this.gc.fillText(String.valueOf(cell.getF_cost()),  // center
-                        cell.getX() * cellSize + (cellSize / 2), cell.getY() * cellSize + (cellSize / 4) * 3);
-                GridMap.this.gc.setFont(new Font((int) (GridMap.this.cellSize * 2 / 10)));
-                GridMap.this.gc.setTextAlign(TextAlignment.LEFT);
-                GridMap.this.gc.fillText(String.valueOf(cell.getG_cost()),  // top left
-                        cell.getX() * cellSize + (cellSize / 8), cell.getY() * cellSize + (cellSize / 4));
-                GridMap.this.gc.setTextAlign(TextAlignment.RIGHT);
-                GridMap.this.gc.fillText(String.valueOf(cell.getH_cost()),  // top right
-                        (cell.getX() + 1) * cellSize - (cellSize / 8), cell.getY() * cellSize + (cellSize / 4));
+        for(int index = 0; index < loaded.size(); index++) {
+            if(loaded.isBarrier(index)) {
+                this.paintCell(loaded.x(index), loaded.y(index), NodeType.BARRIER);
             }
         }
+        if(mapFile.getStart() != MapFile.NO_CELL) {
+            this.start = mapFile.getStart();
+            this.paintCell(loaded.x(this.start), loaded.y(this.start), NodeType.START);
+        }
+        if(mapFile.getTarget() != MapFile.NO_CELL) {
+            this.target = mapFile.getTarget();
+            this.paintCell(loaded.x(this.target), loaded.y(this.target), NodeType.TARGET);
+        }
+        Controller.disable(this.start == NO_CELL || this.target == NO_CELL, this.controller.run);
     }
 
     /**
-     * Fills the square at x, y with given color
-     *
-     * @param x     x-position
-     * @param y     y-position
-     * @param color color to be filled
+     * @return totals of all searches run on this {@code GridMap}
      */
-    private void paintSquare(int x, int y, Color color) {
-        this.gc.setFill(color);
-
-        double width = this.gc.getLineWidth();
-
-        this.gc.fillRect(x * cellSize + width / 2, y * cellSize + width / 2, cellSize - width, cellSize - width);
+    public SearchMetrics getMetrics() {
+        return this.metrics;
     }
 
     /**
-     * Calculates the position in the grid by dividing the {@param coordinate} by the size of the square.
-     *
-     * @param coordinate x- or y-coordinate
-     * @return the position of the coordinate in the grid
+     * @return cached paths of the current grid
      */
-    public int coordinateToGridPos(double coordinate) {
-        return (int) (coordinate / this.cellSize);
+    public PathCache getPathCache() {
+        return this.pathCache;
     }
 
     public void setController(Controller controller) {
@@ -252,46 +273,41 @@ public class GridMap extends HBox implements EventHandler<Event> {
     }
 
     /**
-     * Draws the path from start to target in violet
+     * Draws the path from start to target in violet, on the FX thread
      *
-     * @param cells List of the cells which lie on the path
+     * @param path indices of the cells from start to target
      */
-    public void drawPath(List<Cell> cells) {
-        for(Cell cell : cells) {
-            this.paintCell(cell, GridMap.PATH_COLOR);  // violet
+    public void drawPath(int[] path) {
+        int targetX = this.grid.x(path[path.length - 1]);
+        int targetY = this.grid.y(path[path.length - 1]);
+        int g_cost = 0;
+        for(int i = 1; i < path.length - 1; i++) {  // without start and target
+            int x = this.grid.x(path[i]);
+            int y = this.grid.y(path[i]);
+            g_cost += Distance.octile(this.grid.x(path[i - 1]), this.grid.y(path[i - 1]), x, y);  // costs along the shortest path
+            this.paintCell(x, y, GridMap.PATH_COLOR, g_cost, Distance.octile(x, y, targetX, targetY));  // violet
         }
 
         Controller.disable(false, GridMap.this.controller.reset);
     }
 
-    private List<Cell> getPath(Cell cell) {
-        List<Cell> path = new ArrayList<>();
-
-        cell = cell.getExplorer();
-        Cell explorer = cell.getExplorer();
-        while(explorer != null) {  // until startPoint (which doesn't have an explorer)
-            path.add(cell);
-            cell = explorer;
-            explorer = cell.getExplorer();
-        }
-        //Collections.reverse(path);
-        return path;
-    }
-
     /**
-     * Draws "No Path" on the {@code Canvas}
+     * Draws "No Path" on the {@code Canvas}, on the FX thread
      */
     public void drawTextNoExistingPath() {
-        this.gc.setFont(new Font(this.map.getWidth() / 5));
-        this.gc.setFill(Color.valueOf("9c9c9c"));
-        this.gc.setTextAlign(TextAlignment.CENTER);
-        this.gc.fillText("No Path", this.map.getWidth() / 2, this.map.getHeight() / 5 * 3);
+        this.renderer.setMessage("No Path");
     }
 
     @Override
     public void handle(Event event) {
         if(event.getEventType().equals(MouseEvent.MOUSE_PRESSED) || event.getEventType().equals(MouseEvent.MOUSE_DRAGGED)) {
-            this.handleMouseEvent((MouseEvent) event);
+            MouseEvent mouseEvent = (MouseEvent) event;
+            if(mouseEvent.getButton() == MouseButton.PRIMARY) {
+                this.handleMouseEvent(mouseEvent);
+            }
+            else {  // dragging with the other buttons pans
+                this.handlePanEvent(mouseEvent);
+            }
         }
         else if(event.getEventType().equals(ScrollEvent.SCROLL)) {
             this.handleScrollEvent((ScrollEvent) event);
@@ -302,54 +318,48 @@ public class GridMap extends HBox implements EventHandler<Event> {
      * Handles mouse events: paints nodes on the grid accordingly to the selected type of cell
      *
      * @param event MouseEvent.MOUSE_PRESSED or MouseEvent.MOUSE_DRAGGED
-     * @see Cell.NodeType
+     * @see NodeType
      * @see GridMap#selectedNodeType
      */
     private void handleMouseEvent(MouseEvent event) {
-        if(this.getSelectedNodeType() == null || !this.map.contains(event.getX(), event.getY())) {
+        int x = this.renderer.cellX(event.getX());
+        int y = this.renderer.cellY(event.getY());
+        if(this.getSelectedNodeType() == null || x < 0 || y < 0) {  // nothing selected or outside the grid
             return;
         }
+        int index = this.grid.index(x, y);
 
-        int x = this.coordinateToGridPos(event.getX());
-        int y = this.coordinateToGridPos(event.getY());
-
-        if(grid[x][y].typeEquals(NodeType.START)) {
-            this.start.setCoordinates(null);
+        if(index == this.start) {
+            this.start = NO_CELL;
             Controller.disable(true, this.controller.run);
         }
-        else if(grid[x][y].typeEquals(NodeType.TARGET)) {
-            this.target.setCoordinates(null);
+        else if(index == this.target) {
+            this.target = NO_CELL;
             Controller.disable(true, this.controller.run);
         }
 
-        if(grid[x][y].typeEquals(NodeType.START)) {
-            this.start.setCoordinates(null);
-        }
-
         if(this.getSelectedNodeType().equals(NodeType.START)) {  // painting start button
-            if(this.start.getCoordinates() != null)  // removing previous start
+            if(this.start != NO_CELL)  // removing previous start
             {
-                this.paintCell(start, NodeType.BASIC, true);
+                this.paintCell(this.grid.x(this.start), this.grid.y(this.start), NodeType.BASIC);
             }
-            this.start.setCoordinates(new Point2D(x, y));
-            if(target.getCoordinates() != null) {
+            this.start = index;
+            if(this.target != NO_CELL) {
                 Controller.disable(false, this.controller.run);
             }
         }
         else if(this.getSelectedNodeType().equals(NodeType.TARGET)) {  // painting target button
-            if(this.target.getCoordinates() != null)  // removing previous target
+            if(this.target != NO_CELL)  // removing previous target
             {
-                this.paintCell(target, NodeType.BASIC, true);
+                this.paintCell(this.grid.x(this.target), this.grid.y(this.target), NodeType.BASIC);
             }
-            this.target.setCoordinates(new Point2D(x, y));
-            if(start.getCoordinates() != null) {
+            this.target = index;
+            if(this.start != NO_CELL) {
                 Controller.disable(false, this.controller.run);
             }
         }
 
-        this.grid[x][y].setCoordinates(new Point2D(x, y));
-
-        this.paintCell(grid[x][y], this.getSelectedNodeType(), true);
+        this.paintCell(x, y, this.getSelectedNodeType());
     }
 
     public NodeType getSelectedNodeType() {
@@ -363,19 +373,42 @@ public class GridMap extends HBox implements EventHandler<Event> {
     }
 
     /**
-     * Handles scrolling, changes the size of the grid.
+     * Handles dragging with the secondary or middle mouse button, moves the view.
+     *
+     * @param event MouseEvent.MOUSE_PRESSED or MouseEvent.MOUSE_DRAGGED
+     */
+    private void handlePanEvent(MouseEvent event) {
+        if(event.getEventType().equals(MouseEvent.MOUSE_DRAGGED)) {
+            this.renderer.pan(event.getX() - this.panX, event.getY() - this.panY);
+        }
+        this.panX = event.getX();
+        this.panY = event.getY();
+    }
+
+    /**
+     * Handles scrolling: zooms around the mouse, or changes the size of the grid while control is held.
      *
      * @param event MouseEvent.SCROLL
      */
     private void handleScrollEvent(ScrollEvent event) {
-        int amountScrolled = Integer.compare(0, (int) event.getDeltaY()) * 2;  // checks if zoomed in or out
+        if(event.getDeltaY() == 0) {
+            return;
+        }
+        if(!event.isControlDown()) {
+            this.renderer.zoom(event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, event.getX(), event.getY());
+            return;
+        }
 
-        if(this.gridSize + amountScrolled < GRID_SIZE_MIN || this.gridSize + amountScrolled > GRID_SIZE_MAX) {
+        int step = Math.max(2, this.gridSize / 8);
+        int size = this.gridSize + (event.getDeltaY() < 0 ? step : -step);  // checks if scrolled up or down
+        size = Math.max(GRID_SIZE_MIN, Math.min(GRID_SIZE_MAX, size));
+        if(size == this.gridSize) {
             return;
         }
 
-        this.setGridSize(this.gridSize + amountScrolled);  // provides method with changed value
+        this.setGridSize(size);  // provides method with changed value, stops a running search
 
+        this.controller.disableDrawingButtons(false);
         Controller.disable(true, this.controller.run);
     }
 
@@ -388,37 +421,34 @@ public class GridMap extends HBox implements EventHandler<Event> {
     }
 
     /**
-     * Returns the G_cost (distance between the start cell and given cell)
-     *
-     * @param explorerCell explorer of focused-cell
-     * @param focusedCell  currently focused cell
-     * @return g_cost
-     */
-    public int calcG_cost(Cell explorerCell, Cell focusedCell) {
-        // not using explorer of current (Point2D(cX, CY)) for testing for shorter paths via other explorers
-        return explorerCell.getG_cost() + GridMap.getDistance(explorerCell.getX(), explorerCell.getY(), focusedCell.getX(), focusedCell.getY());
-    }
-
-    /**
-     * Returns the H_cost (distance between given cell and target Point)
-     *
-     * @param focusedCell currently focused cell
-     * @return g_cost
+     * Initializes and starts algorithm, or draws the cached path if the same search has run on the unchanged grid
      */
-    public int calcH_cost(Cell focusedCell) {
-        assert this.target != null;
-        return GridMap.getDistance(focusedCell.getX(), focusedCell.getY(), target.getX(), target.getY());
+    public void startAlgorithm() {
+        assert this.start != NO_CELL;
+        assert this.target != NO_CELL;
+
+        if(!this.controller.selfExploreItem.isSelected()) {  // self-explored paths aren't necessarily the shortest
+            SearchResult cached = this.pathCache.getCached(this.grid.x(this.start), this.grid.y(this.start), this.grid.x(this.target), this.grid.y(this.target));
+            if(cached != null) {
+                this.drawResult(cached);
+                return;
+            }
+        }
+        this.algorithm = new Algorithm();
+        this.algorithm.start();
     }
 
-
     /**
-     * Initializes and starts algorithm
+     * Draws the path or "No Path" after the search has finished.
      */
-    public void startAlgorithm() {
-        assert GridMap.this.start.getCoordinates() != null;
-        assert GridMap.this.target.getCoordinates() != null;
-
-        new Algorithm().start();
+    private void drawResult(SearchResult result) {
+        if(result.isFound()) {
+            this.drawPath(result.getPath());
+        }
+        else {
+            this.drawTextNoExistingPath();
+            Controller.disable(false, this.controller.reset);
+        }
     }
 
     /**
@@ -431,142 +461,123 @@ public class GridMap extends HBox implements EventHandler<Event> {
     }
 
     /**
-     * Algorithm for finding the shortest path between the start and the target.
-     * Uses A* search algorithm.
+     * Visual consumer of the {@code AStar} search: runs it on its own thread and queues the painting
+     * of every explored cell, which the FX thread renders once per pulse. Replacing the grid cancels it,
+     * drawing queued afterwards is skipped.
      *
-     * @see Algorithm#run
+     * @see AStar
      */
-    class Algorithm extends Thread {
-        @Override
-        public void run() {
-            Cell[][] grid = GridMap.this.grid;
-
-            MinHeap<Cell> open = new MinHeap<>(GridMap.this.gridSize * GridMap.this.gridSize);
+    class Algorithm extends Thread implements SearchListener {
+        private final AStar search;
+        private final SearchBudget budget = new SearchBudget();  // only cancelled
+        private final boolean interactive;  // read on the FX thread
+
+        // state of the GridMap when the search started, it's replaced on the FX thread by a new grid
+        private final Grid grid;
+        private final PathCache pathCache;
+        private final int start, target;
+        private final long version;  // of the grid
+
+        Algorithm() {
+            this.grid = GridMap.this.grid;
+            this.pathCache = GridMap.this.pathCache;
+            this.start = GridMap.this.start;
+            this.target = GridMap.this.target;
+            this.version = this.grid.getVersion();
+            this.interactive = GridMap.this.controller.selfExploreItem.isSelected();
+
+            this.search = new AStar(this.grid, this.grid.x(this.start), this.grid.y(this.start), this.grid.x(this.target), this.grid.y(this.target));
+            this.search.setListener(this);
+            this.search.setBudget(this.budget);
+            this.setDaemon(true);  // doesn't keep the application alive
+        }
 
-            GridMap.this.start.setG_cost(0);  // 0 distance to the start
-            GridMap.this.start.setH_cost(GridMap.this.calcH_cost(GridMap.this.start));
+        /**
+         * Stops the search at its next step, waking it up if it waits for the delay.
+         */
+        void cancel() {
+            this.budget.cancel();
+            this.interrupt();
+        }
 
-            open.add(GridMap.this.start);
-            GridMap.this.start.open();
+        /**
+         * Queues drawing, which is skipped if the search has been cancelled in the meantime.
+         */
+        private void renderLater(Runnable drawing) {
+            GridMap.this.renderLater(() -> {
+                if(GridMap.this.algorithm == this) {
+                    drawing.run();
+                }
+            });
+        }
 
-            if(GridMap.this.controller.selfExploreItem.isSelected()) {
-                this.runInteractively(open, grid);
+        @Override
+        public void run() {
+            if(this.interactive) {
+                this.runInteractively();
             }
             else {
-                this.runAStarAlgorithm(open, grid);
+                this.runAStarAlgorithm();
             }
         }
 
-        private void runInteractively(MinHeap<Cell> open, Cell[][] grid) {  // when self-exploring-mode is selected
-            this.exploreNeighbours(open, grid, GridMap.this.start);
+        private void runInteractively() {  // when self-exploring-mode is selected
+            this.search.step();  // explores the start
 
-            GridMap.this.map.setOnMouseClicked(event -> {
-                int x = GridMap.this.coordinateToGridPos(event.getX());
-                int y = GridMap.this.coordinateToGridPos(event.getY());
+            this.renderLater(() -> GridMap.this.map.setOnMouseClicked(event -> {
+                int x = GridMap.this.renderer.cellX(event.getX());
+                int y = GridMap.this.renderer.cellY(event.getY());
 
-                if(!grid[x][y].isOpen() || grid[x][y].isClosed()) {
+                if(x < 0 || y < 0 || !this.search.isOpen(x, y)) {
                     return;
                 }
 
-                Cell current = grid[x][y];  // get mouse coordinates
-                //open.remove(grid[x][y]);
-
-                if(!current.typeEquals(NodeType.TARGET)) {
-                    this.exploreNeighbours(open, grid, current);
-
-                    if(open.size() == 0) {  // no path found
-                        GridMap.this.drawTextNoExistingPath();
-                        GridMap.this.map.setOnMouseClicked(GridMap.this);  // removes this EventHandler
-                    }
-                }
-                else {  // finished
-                    GridMap.this.drawPath(GridMap.this.getPath(current));
-                    GridMap.this.map.setOnMouseClicked(GridMap.this);
+                if(!this.search.expand(x, y)) {  // finished
+                    this.finish();
+                    GridMap.this.map.setOnMouseClicked(GridMap.this);  // removes this EventHandler
                 }
-            });
+            }));
         }
 
-        private void runAStarAlgorithm(MinHeap<Cell> open, Cell[][] grid) {
-            assert open.size() > 0;
-
-            long start = System.currentTimeMillis();
-            int time = 0;
-
-            while(open.size() > 0) {
-                Cell current = open.removeFirst();  // returns item with lowest f_cost
-
-                if(current.typeEquals(NodeType.TARGET)) {  // finished
-                    GridMap.this.drawPath(GridMap.this.getPath(current));
-                    System.out.println("Finished in " + (System.currentTimeMillis() - start - time) + "ms (without delay)");
-                    return;
+        private void runAStarAlgorithm() {
+            while(this.search.step()) {
+                if(GridMap.this.delay > 0) {  // without delay the search runs at full speed, rendering catches up per pulse
+                    this.sleepDelay();
                 }
-
-                this.exploreNeighbours(open, grid, current);
-
-                this.sleepDelay();
-                time += GridMap.this.delay;
-//                System.out.println(time + ", inc: " + delay);
             }
-            // no path found
-            GridMap.this.drawTextNoExistingPath();
-            Controller.disable(false, GridMap.this.controller.reset);
+            this.finish();
         }
 
         /**
-         * Explores the adjacent cells around a given cell explorer.
-         *
-         * @param open     Heap of opened cells
-         * @param grid     2D array of cells
-         * @param explorer center cell; adjacent cells will be explored
+         * Caches and draws the result after the search has finished, on the FX thread. Both are skipped if the grid
+         * has been replaced in the meantime.
          */
-        private void exploreNeighbours(MinHeap<Cell> open, Cell[][] grid, Cell explorer) {
-            explorer.close();
-            GridMap.this.paintCell(explorer);
-
-            // explore neighbours and search for shorter paths
-            for(Cell neighbour : this.getNeighbours(grid, explorer)) {
-
-                // testing for smaller g_cost via a new route
-                int newCost = GridMap.this.calcG_cost(explorer, neighbour);
-                if(newCost < neighbour.getG_cost() || neighbour.getG_cost() == 0) {
-                    neighbour.setG_cost(newCost);
-                    neighbour.setExplorer(explorer);
-
-                    if(!neighbour.isOpen()) {
-                        neighbour.setH_cost(GridMap.this.calcH_cost(neighbour));
-
-                        open.add(neighbour);
-                        neighbour.open();
-                    }
-                    else  // opened
-                    {
-                        open.updateItem(neighbour);  // cost has changed -> position in heap might too
-                    }
+        private void finish() {
+            SearchResult result = this.search.getResult();
+            if(result.isPartial()) {  // cancelled
+                return;
+            }
+            GridMap.this.metrics.record(result);
+
+            this.renderLater(() -> {  // after all explored cells
+                GridMap.this.algorithm = null;
+                if(!this.interactive) {
+                    this.pathCache.put(this.version, this.grid.x(this.start), this.grid.y(this.start), this.grid.x(this.target), this.grid.y(this.target), result);
                 }
+                GridMap.this.drawResult(result);
+            });
+        }
 
-                GridMap.this.paintCell(neighbour);
-            }
+        @Override
+        public void onClose(int x, int y, int g_cost, int h_cost) {
+            NodeType type = this.grid.index(x, y) == this.start ? NodeType.START : NodeType.CLOSE;
+            this.renderLater(() -> GridMap.this.paintCell(x, y, type.color, g_cost, h_cost));
         }
 
-        /**
-         * Returns the adjacent cells of a given cell explorer.
-         *
-         * @param grid     2D array of cells
-         * @param explorer center cell; adjacent cells will be explored
-         * @return {@code List<Cell>} of the neighbours
-         */
-        private List<Cell> getNeighbours(Cell[][] grid, Cell explorer) {
-            List<Cell> neighbours = new ArrayList<>();
-            for(int x = explorer.getX() - 1; x <= explorer.getX() + 1; x++) {
-                for(int y = explorer.getY() - 1; y <= explorer.getY() + 1; y++) {
-                    if(x < 0 || y < 0 || x >= GridMap.this.gridSize || y >= GridMap.this.gridSize || grid[x][y] == explorer || grid[x][y].isClosed() || grid[x][y].isNotTraversable() || grid[x][y].typeEquals(NodeType.START)) {
-                        continue;
-                    }
-                    grid[x][y].setCoordinates(new Point2D(x, y));
-                    neighbours.add(grid[x][y]);
-                }
-            }
-            return neighbours;
+        @Override
+        public void onVisit(int x, int y, int g_cost, int h_cost) {
+            NodeType type = this.grid.index(x, y) == this.target ? NodeType.TARGET : NodeType.OPEN;
+            this.renderLater(() -> GridMap.this.paintCell(x, y, type.color, g_cost, h_cost));
         }
 
         /**
@@ -579,8 +590,8 @@ public class GridMap extends HBox implements EventHandler<Event> {
             try {
                 Thread.sleep(GridMap.this.delay);
             }
-            catch(InterruptedException e) {
-                System.err.println(e.getMessage());
+            catch(InterruptedException e) {  // by cancel, the next step stops the search
+                this.budget.cancel();
             }
         }
     }
@@ -0,0 +1,294 @@
+package at.oliver.map;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+
+/**
+ * Draws the cells of a {@code GridMap} onto its {@code Canvas}, zoomed and panned.
+ * <p>
+ * Every cell is one pixel of an {@code int[]} (ARGB), copied into a {@code WritableImage} which is drawn scaled up
+ * to the size of the cells. Painting a cell only changes the buffer and marks it dirty; once per pulse
+ * {@link GridRenderer#repaint} copies the dirty region into the image and redraws just that region of the canvas,
+ * or the whole canvas after zooming or panning. Grid lines are stroked once per visible row and column.
+ * <p>
+ * Only used on the FX thread.
+ *
+ * @see GridMap
+ */
+class GridRenderer {
+    private static final Color BACKGROUND = Color.valueOf("e4e4e4");  // outside the grid
+    private static final Color LINE_COLOR = Color.valueOf("161616");
+    private static final Color TEXT_COLOR = Color.valueOf("161616");
+    private static final Color MESSAGE_COLOR = Color.valueOf("9c9c9c");
+    private static final double MAX_SCALE = 80;  // pixels per cell
+    private static final double MIN_LINE_SCALE = 6;  // grid lines of smaller cells would cover them
+    private static final double MIN_TEXT_SCALE = 24;  // values of smaller cells can't be read
+    private static final int NO_VALUE = -1;
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final Font messageFont;
+
+    private int width, height;  // of the grid
+    private int[] pixels;  // color of every cell, by index
+    private WritableImage image;
+    private int[] g_costs, h_costs;  // values shown in the cells, allocated when the first one is set
+
+    private double scale;  // pixels per cell
+    private double offsetX, offsetY;  // position of the top left corner of the grid on the canvas
+    private Font costFont, smallCostFont;  // sized by the scale
+    private String message;  // drawn over the grid, null for none
+
+    private boolean viewChanged;  // whole canvas has to be redrawn
+    private int dirtyMinX, dirtyMinY, dirtyMaxX = -1, dirtyMaxY;  // cells painted since the last repaint, empty if min > max
+
+    GridRenderer(Canvas canvas) {
+        this.canvas = canvas;
+        this.gc = canvas.getGraphicsContext2D();
+        this.gc.setImageSmoothing(false);  // sharp cells when zoomed in
+        this.gc.setStroke(LINE_COLOR);
+        this.messageFont = new Font(canvas.getWidth() / 5);
+    }
+
+    /**
+     * Starts over with a grid of the given size, all cells painted in the given color and the whole grid in view.
+     */
+    void reset(int width, int height, Color color) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        Arrays.fill(this.pixels, argb(color));
+        this.image = new WritableImage(width, height);
+        this.g_costs = null;
+        this.h_costs = null;
+        this.message = null;
+
+        this.setScale(Math.min(MAX_SCALE, Math.min(this.canvas.getWidth() / width, this.canvas.getHeight() / height)));
+        this.clampView();
+        this.dirtyMaxX = -1;  // cells of the previous grid
+        this.markDirty(0, 0, width - 1, height - 1);
+    }
+
+    /**
+     * Paints a cell, removing its values.
+     */
+    void setCell(int x, int y, Color color) {
+        int index = y * this.width + x;
+        this.pixels[index] = argb(color);
+        if(this.g_costs != null) {
+            this.g_costs[index] = NO_VALUE;
+        }
+        this.markDirty(x, y, x, y);
+    }
+
+    /**
+     * Paints a cell and shows its values, if the cells are large enough to read them.
+     */
+    void setCell(int x, int y, Color color, int g_cost, int h_cost) {
+        this.setCell(x, y, color);
+        if(this.g_costs == null) {
+            this.g_costs = new int[this.pixels.length];
+            this.h_costs = new int[this.pixels.length];
+            Arrays.fill(this.g_costs, NO_VALUE);
+        }
+        this.g_costs[y * this.width + x] = g_cost;
+        this.h_costs[y * this.width + x] = h_cost;
+    }
+
+    /**
+     * @param message text drawn over the grid, {@code null} for none
+     */
+    void setMessage(String message) {
+        this.message = message;
+        this.viewChanged = true;
+    }
+
+    /**
+     * Zooms in or out, the point under the pivot stays in place.
+     *
+     * @param factor scale multiplier, larger than 1 to zoom in
+     * @param pivotX x-position on the canvas
+     * @param pivotY y-position on the canvas
+     */
+    void zoom(double factor, double pivotX, double pivotY) {
+        double minScale = Math.min(MAX_SCALE, Math.min(this.canvas.getWidth() / this.width, this.canvas.getHeight() / this.height));
+        double scale = Math.max(minScale, Math.min(MAX_SCALE, this.scale * factor));
+        this.offsetX = pivotX - (pivotX - this.offsetX) * scale / this.scale;
+        this.offsetY = pivotY - (pivotY - this.offsetY) * scale / this.scale;
+        this.setScale(scale);
+        this.clampView();
+    }
+
+    /**
+     * Moves the view by the given distance in pixels.
+     */
+    void pan(double deltaX, double deltaY) {
+        this.offsetX += deltaX;
+        this.offsetY += deltaY;
+        this.clampView();
+    }
+
+    /**
+     * @return x-position of the cell at the x-position on the canvas, -1 if it's outside the grid
+     */
+    int cellX(double canvasX) {
+        int x = (int) Math.floor((canvasX - this.offsetX) / this.scale);
+        return x >= 0 && x < this.width ? x : -1;
+    }
+
+    /**
+     * @return y-position of the cell at the y-position on the canvas, -1 if it's outside the grid
+     */
+    int cellY(double canvasY) {
+        int y = (int) Math.floor((canvasY - this.offsetY) / this.scale);
+        return y >= 0 && y < this.height ? y : -1;
+    }
+
+    private void setScale(double scale) {
+        if(scale != this.scale) {
+            this.scale = scale;
+            this.costFont = new Font((int) (scale * 4 / 10));
+            this.smallCostFont = new Font((int) (scale * 2 / 10));
+        }
+        this.viewChanged = true;
+    }
+
+    /**
+     * Centers a grid smaller than the canvas, keeps a larger one covering the canvas.
+     */
+    private void clampView() {
+        this.offsetX = clamp(this.offsetX, this.canvas.getWidth() - this.width * this.scale);
+        this.offsetY = clamp(this.offsetY, this.canvas.getHeight() - this.height * this.scale);
+        this.viewChanged = true;
+    }
+
+    /**
+     * @param free canvas size minus grid size
+     */
+    private static double clamp(double offset, double free) {
+        return free >= 0 ? free / 2 : Math.max(free, Math.min(0, offset));
+    }
+
+    private void markDirty(int minX, int minY, int maxX, int maxY) {
+        if(this.dirtyMinX > this.dirtyMaxX) {
+            this.dirtyMinX = minX;
+            this.dirtyMinY = minY;
+            this.dirtyMaxX = maxX;
+            this.dirtyMaxY = maxY;
+        }
+        else {
+            this.dirtyMinX = Math.min(this.dirtyMinX, minX);
+            this.dirtyMinY = Math.min(this.dirtyMinY, minY);
+            this.dirtyMaxX = Math.max(this.dirtyMaxX, maxX);
+            this.dirtyMaxY = Math.max(this.dirtyMaxY, maxY);
+        }
+    }
+
+    /**
+     * Brings the canvas up to date: copies the dirty cells into the image and redraws the region they cover,
+     * or everything if the view has changed. Called once per pulse.
+     */
+    void repaint() {
+        if(this.pixels == null) {  // no grid yet
+            return;
+        }
+        boolean dirty = this.dirtyMinX <= this.dirtyMaxX;
+        if(dirty) {
+            int dirtyWidth = this.dirtyMaxX - this.dirtyMinX + 1;
+            int dirtyHeight = this.dirtyMaxY - this.dirtyMinY + 1;
+            this.image.getPixelWriter().setPixels(this.dirtyMinX, this.dirtyMinY, dirtyWidth, dirtyHeight, PixelFormat.getIntArgbInstance(),
+                    this.pixels, this.dirtyMinY * this.width + this.dirtyMinX, this.width);
+        }
+
+        if(this.viewChanged) {
+            this.gc.setFill(BACKGROUND);
+            this.gc.fillRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+            this.draw(0, 0, this.width - 1, this.height - 1);
+        }
+        else if(dirty) {
+            this.draw(this.dirtyMinX, this.dirtyMinY, this.dirtyMaxX, this.dirtyMaxY);
+        }
+        if((this.viewChanged || dirty) && this.message != null) {
+            this.gc.setFont(this.messageFont);
+            this.gc.setFill(MESSAGE_COLOR);
+            this.gc.setTextAlign(TextAlignment.CENTER);
+            this.gc.fillText(this.message, this.canvas.getWidth() / 2, this.canvas.getHeight() / 5 * 3);
+        }
+
+        this.viewChanged = false;
+        this.dirtyMinX = 0;
+        this.dirtyMaxX = -1;
+    }
+
+    /**
+     * Draws the visible part of the given region of cells.
+     */
+    private void draw(int minX, int minY, int maxX, int maxY) {
+        // limiting the region to the visible cells
+        minX = Math.max(minX, Math.max(0, this.cellX(0)));
+        minY = Math.max(minY, Math.max(0, this.cellY(0)));
+        int lastX = this.cellX(this.canvas.getWidth() - 1);
+        int lastY = this.cellY(this.canvas.getHeight() - 1);
+        maxX = Math.min(maxX, lastX < 0 ? this.width - 1 : lastX);
+        maxY = Math.min(maxY, lastY < 0 ? this.height - 1 : lastY);
+        if(minX > maxX || minY > maxY) {
+            return;
+        }
+
+        double left = this.offsetX + minX * this.scale;
+        double top = this.offsetY + minY * this.scale;
+        double right = this.offsetX + (maxX + 1) * this.scale;
+        double bottom = this.offsetY + (maxY + 1) * this.scale;
+        this.gc.drawImage(this.image, minX, minY, maxX - minX + 1, maxY - minY + 1, left, top, right - left, bottom - top);
+
+        if(this.scale >= MIN_LINE_SCALE) {  // one line per row and column
+            this.gc.setLineWidth(Math.max(1, this.scale / 16));
+            for(int x = minX; x <= maxX + 1; x++) {
+                double lineX = this.offsetX + x * this.scale;
+                this.gc.strokeLine(lineX, top, lineX, bottom);
+            }
+            for(int y = minY; y <= maxY + 1; y++) {
+                double lineY = this.offsetY + y * this.scale;
+                this.gc.strokeLine(left, lineY, right, lineY);
+            }
+        }
+
+        if(this.g_costs != null && this.scale >= MIN_TEXT_SCALE) {
+            this.gc.setFill(TEXT_COLOR);
+            for(int y = minY; y <= maxY; y++) {
+                for(int x = minX; x <= maxX; x++) {
+                    int index = y * this.width + x;
+                    if(this.g_costs[index] != NO_VALUE) {
+                        this.drawValues(this.offsetX + x * this.scale, this.offsetY + y * this.scale, this.g_costs[index], this.h_costs[index]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws f_cost in the center, g_cost top left and h_cost top right of the cell at the given position.
+     */
+    private void drawValues(double left, double top, int g_cost, int h_cost) {
+        this.gc.setFont(this.costFont);
+        this.gc.setTextAlign(TextAlignment.CENTER);
+        this.gc.fillText(String.valueOf(g_cost + h_cost), left + this.scale / 2, top + this.scale / 4 * 3);
+        this.gc.setFont(this.smallCostFont);
+        this.gc.setTextAlign(TextAlignment.LEFT);
+        this.gc.fillText(String.valueOf(g_cost), left + this.scale / 8, top + this.scale / 4);
+        this.gc.setTextAlign(TextAlignment.RIGHT);
+        this.gc.fillText(String.valueOf(h_cost), left + this.scale - this.scale / 8, top + this.scale / 4);
+    }
+
+    private static int argb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24 | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+    }
+}
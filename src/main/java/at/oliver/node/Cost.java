@@ -1,13 +0,0 @@
-package at.oliver.node;
-
-public interface Cost {
-    int getG_cost();
-
-    void setG_cost(int g_cost);
-
-    int getH_cost();
-
-    void setH_cost(int h_cost);
-
-    int getF_cost();
-}
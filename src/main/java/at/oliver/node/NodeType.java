@@ -0,0 +1,22 @@
+package at.oliver.node;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Types of the cells drawn on a {@code GridMap}, each with its color.
+ */
+public enum NodeType {
+    BASIC(Color.WHITE), START(Color.valueOf("299bc3")), TARGET(Color.valueOf("c329c0")), BARRIER(Color.BLACK), OPEN(Color.valueOf("6cbf03")), CLOSE(Color.valueOf("bf1306"));
+
+
+    public final Color color;
+
+    NodeType(Color color) {
+        this.color = color;
+    }
+
+    @Override
+    public String toString() {
+        return "CellType[color=" + this.color + "]";
+    }
+}
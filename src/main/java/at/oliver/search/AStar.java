@@ -0,0 +1,438 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntHeap;
+
+/**
+ * A* search for the shortest path between a start and a target cell of a {@code Grid}.
+ * Neighbours are the eight adjacent cells, costs follow {@link Distance#octile}.
+ * <p>
+ * The state of the search is kept in the flat arrays of a {@code SearchContext}, indexed like the {@code Grid}
+ * ({@code y * width + x}), about 13 bytes per cell together with the terrain. Passing the same context to the
+ * following searches avoids allocating and clearing these arrays again.
+ * <p>
+ * A search can either be {@link AStar#run run} to completion, advanced one cell at a time with {@link AStar#step},
+ * or driven by choosing the cells to explore with {@link AStar#expand}. Given a {@code SearchBudget}, {@link AStar#step}
+ * stops the search once the budget is exhausted, with a partial result leading to the cell of the lowest h_cost.
+ * <p>
+ * The open list is an {@code IntHeap} of cell indices, chosen by {@link OpenLists#create} unless another one is given.
+ * The h_cost is the octile distance, or the tighter bound of precomputed {@code Landmarks} if given.
+ *
+ * @see Grid
+ * @see SearchContext
+ * @see Landmarks
+ * @see SearchBudget
+ */
+public class AStar {
+    private static final int NO_EXPLORER = -1;
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final int start, target;
+    private final int targetX, targetY;
+    private final Landmarks landmarks;  // null for the octile distance
+    private final int[] landmarkDistances;  // from the landmarks to the target
+
+    private final SearchContext context;
+    private final int[] g_cost;  // of the context
+    private final int[] explorer;  // of the context
+    private final IntHeap open;  // of the context
+    private final SearchStats stats = new SearchStats();
+
+    private SearchListener listener;
+    private SearchBudget budget;  // null for none
+    private SearchResult result;
+    private int openCount;  // opened cells which are not closed yet
+    private int closest = NO_EXPLORER;  // opened cell with the lowest h_cost, end of a partial result
+    private int closestH_cost = Integer.MAX_VALUE;
+
+    /**
+     * Prepares a search, the start cell is put on the open list.
+     *
+     * @param grid    grid to be searched
+     * @param startX  x-position of the start
+     * @param startY  y-position of the start
+     * @param targetX x-position of the target
+     * @param targetY y-position of the target
+     */
+    public AStar(Grid grid, int startX, int startY, int targetX, int targetY) {
+        this(grid, startX, startY, targetX, targetY, new SearchContext(grid.size()));
+    }
+
+    /**
+     * Prepares a search with the given open list, the start cell is put on it.
+     *
+     * @param grid    grid to be searched
+     * @param startX  x-position of the start
+     * @param startY  y-position of the start
+     * @param targetX x-position of the target
+     * @param targetY y-position of the target
+     * @param open    empty open list, must be able to hold every cell index of the grid
+     * @see at.oliver.heap.IndexedIntHeap
+     */
+    public AStar(Grid grid, int startX, int startY, int targetX, int targetY, IntHeap open) {
+        this(grid, startX, startY, targetX, targetY, emptyContext(grid, open));
+    }
+
+    /**
+     * Prepares a search reusing the state of the given context, the start cell is put on its open list.
+     * A search previously prepared with the context must not be continued afterwards.
+     *
+     * @param grid    grid to be searched
+     * @param startX  x-position of the start
+     * @param startY  y-position of the start
+     * @param targetX x-position of the target
+     * @param targetY y-position of the target
+     * @param context context with a capacity of at least the size of the grid
+     */
+    public AStar(Grid grid, int startX, int startY, int targetX, int targetY, SearchContext context) {
+        this(grid, startX, startY, targetX, targetY, context, null);
+    }
+
+    /**
+     * Prepares a search guided by landmarks, reusing the state of the given context.
+     *
+     * @param grid      grid to be searched
+     * @param startX    x-position of the start
+     * @param startY    y-position of the start
+     * @param targetX   x-position of the target
+     * @param targetY   y-position of the target
+     * @param context   context with a capacity of at least the size of the grid
+     * @param landmarks landmarks of the grid, {@code null} for the octile distance; not used if the start is a barrier
+     *                  or the grid changed since they were computed, see {@link Landmarks#isCurrent}
+     */
+    public AStar(Grid grid, int startX, int startY, int targetX, int targetY, SearchContext context, Landmarks landmarks) {
+        if(context.getCapacity() < grid.size()) {
+            throw new IllegalArgumentException("Error at AStar: capacity of the context is smaller than the grid");
+        }
+        if(!grid.contains(startX, startY) || !grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at AStar: start and target must lie within the grid");
+        }
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.start = grid.index(startX, startY);
+        this.target = grid.index(targetX, targetY);
+        this.targetX = targetX;
+        this.targetY = targetY;
+        // neighbours of a barrier start may only be connected through it, the landmark distances don't know this way;
+        // outdated distances could overestimate
+        this.landmarks = grid.isBarrier(this.start) || landmarks == null || !landmarks.isCurrent(grid) ? null : landmarks;
+        this.landmarkDistances = this.landmarks != null ? this.landmarks.distancesTo(this.target) : null;
+
+        context.reset();
+        this.context = context;
+        this.g_cost = context.g_cost;
+        this.explorer = context.explorer;
+        this.open = context.open;
+
+        this.open(this.start, startX, startY, 0, NO_EXPLORER);  // 0 distance to the start
+    }
+
+    /**
+     * Searches the shortest path without any listener.
+     *
+     * @return the result of the finished search
+     */
+    public static SearchResult findPath(Grid grid, int startX, int startY, int targetX, int targetY) {
+        return new AStar(grid, startX, startY, targetX, targetY).run();
+    }
+
+    /**
+     * Searches the shortest path without any listener, reusing the state of the given context.
+     *
+     * @return the result of the finished search
+     */
+    public static SearchResult findPath(Grid grid, int startX, int startY, int targetX, int targetY, SearchContext context) {
+        return new AStar(grid, startX, startY, targetX, targetY, context).run();
+    }
+
+    /**
+     * Searches the shortest path guided by landmarks without any listener, reusing the state of the given context.
+     *
+     * @return the result of the finished search
+     */
+    public static SearchResult findPath(Grid grid, int startX, int startY, int targetX, int targetY, SearchContext context, Landmarks landmarks) {
+        return new AStar(grid, startX, startY, targetX, targetY, context, landmarks).run();
+    }
+
+    /**
+     * Searches the shortest path within a budget without any listener, reusing the state of the given context.
+     *
+     * @return the result of the finished search, partial if the budget was exhausted before
+     */
+    public static SearchResult findPath(Grid grid, int startX, int startY, int targetX, int targetY, SearchContext context, SearchBudget budget) {
+        AStar search = new AStar(grid, startX, startY, targetX, targetY, context);
+        search.setBudget(budget);
+        return search.run();
+    }
+
+    private static SearchContext emptyContext(Grid grid, IntHeap open) {
+        if(!open.isEmpty()) {
+            throw new IllegalArgumentException("Error at AStar: open list must be empty");
+        }
+        return new SearchContext(grid.size(), open);
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param budget limits of the following steps, {@code null} for none; {@link AStar#expand} isn't limited
+     */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Runs the search until the target has been reached, no open cell is left or the budget is exhausted.
+     *
+     * @return the result of the finished search, partial if the budget was exhausted
+     */
+    public SearchResult run() {
+        while(this.step()) {
+            // expanding until finished
+        }
+        return this.result;
+    }
+
+    /**
+     * Explores the open cell with the lowest f_cost, or finishes the search with a partial result if the budget is
+     * exhausted.
+     *
+     * @return {@code false} if the search has finished
+     */
+    public boolean step() {
+        if(this.isFinished()) {
+            return false;
+        }
+        if(this.budget != null && this.budget.isExhausted(this.stats.expandedNodes)) {
+            this.result = SearchResult.partial(tracePath(this.explorer, this.closest), this.g_cost[this.closest], this.stats);
+            return false;
+        }
+        long begin = System.nanoTime();
+        long listenerBegin = this.stats.listenerNanos;
+        long cpuBegin = this.listener != null ? SearchStats.threadCpuNanos() : 0;
+
+        int current = NO_EXPLORER;
+        while(current == NO_EXPLORER && !this.open.isEmpty()) {
+            int index = this.open.removeFirst();  // returns item with lowest f_cost
+            if(!this.context.isClosed(index)) {  // skipping outdated entries and cells already explored by expand
+                current = index;
+            }
+        }
+
+        if(current == NO_EXPLORER) {  // no path found
+            this.finish(false);
+        }
+        else if(current == this.target) {
+            this.finish(true);
+        }
+        else {
+            this.exploreNeighbours(current);
+        }
+
+        this.addTime(begin, listenerBegin, cpuBegin);
+        return !this.isFinished();
+    }
+
+    /**
+     * Explores the given open cell instead of the one with the lowest f_cost. Expanding the target finishes the search.
+     *
+     * @param x x-position of an open cell
+     * @param y y-position of an open cell
+     * @return {@code false} if the search has finished
+     * @see AStar#isOpen
+     */
+    public boolean expand(int x, int y) {
+        if(!this.isOpen(x, y)) {
+            throw new IllegalStateException("Error at AStar: only open cells can be expanded");
+        }
+        long begin = System.nanoTime();
+        long listenerBegin = this.stats.listenerNanos;
+        long cpuBegin = this.listener != null ? SearchStats.threadCpuNanos() : 0;
+
+        int current = this.grid.index(x, y);
+        if(current == this.target) {
+            this.finish(true);
+        }
+        else {
+            this.exploreNeighbours(current);  // stays in the heap, will be skipped by step
+
+            if(this.openCount == 0) {  // no path found
+                this.finish(false);
+            }
+        }
+
+        this.addTime(begin, listenerBegin, cpuBegin);
+        return !this.isFinished();
+    }
+
+    /**
+     * Adds the time since the beginning of a step to the stats, the time spent in the listener separately.
+     * CPU time is only measured with a listener, a headless step takes about as long as measuring it.
+     */
+    private void addTime(long begin, long listenerBegin, long cpuBegin) {
+        this.stats.searchNanos += System.nanoTime() - begin - (this.stats.listenerNanos - listenerBegin);
+        if(this.listener != null) {
+            this.stats.cpuNanos += SearchStats.threadCpuNanos() - cpuBegin;
+        }
+    }
+
+    /**
+     * @return {@code true} if the cell is on the open list and has not been explored yet
+     */
+    public boolean isOpen(int x, int y) {
+        int index = this.grid.index(x, y);
+        return !this.isFinished() && this.context.isOpened(index) && !this.context.isClosed(index);
+    }
+
+    public int getG_cost(int x, int y) {
+        return this.context.isOpened(this.grid.index(x, y)) ? this.g_cost[this.grid.index(x, y)] : 0;
+    }
+
+    public int getH_cost(int x, int y) {
+        return this.context.isOpened(this.grid.index(x, y)) ? this.calcH_cost(this.grid.index(x, y), x, y) : 0;
+    }
+
+    public boolean isFinished() {
+        return this.result != null;
+    }
+
+    /**
+     * @return the result, {@code null} while the search is running
+     */
+    public SearchResult getResult() {
+        return this.result;
+    }
+
+    public SearchStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * Explores the adjacent cells around a given cell explorer.
+     * Allocates nothing: neighbours are reached by adding the precomputed offsets of the {@code Directions} to the index.
+     *
+     * @param explorer index of the center cell; adjacent cells will be explored
+     */
+    private void exploreNeighbours(int explorer) {
+        int explorerY = explorer / this.width;
+        int explorerX = explorer - explorerY * this.width;
+        int explorerCost = this.g_cost[explorer];
+
+        this.context.setClosed(explorer);
+        this.openCount--;
+        this.stats.expandedNodes++;
+        if(this.listener != null) {
+            long begin = System.nanoTime();
+            this.listener.onClose(explorerX, explorerY, explorerCost, this.calcH_cost(explorer, explorerX, explorerY));
+            this.stats.listenerNanos += System.nanoTime() - begin;
+        }
+
+        for(int d = 0; d < Directions.COUNT; d++) {
+            int x = explorerX + Directions.DX[d];
+            int y = explorerY + Directions.DY[d];
+            if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                continue;
+            }
+            int neighbour = explorer + this.offsets[d];
+            if(this.grid.isBarrier(neighbour) || this.context.isClosed(neighbour) || neighbour == this.start) {
+                continue;
+            }
+
+            // testing for smaller g_cost via a new route
+            int newCost = explorerCost + Directions.COST[d];
+            if(!this.context.isOpened(neighbour)) {
+                this.open(neighbour, x, y, newCost, explorer);
+            }
+            else if(newCost < this.g_cost[neighbour]) {
+                this.g_cost[neighbour] = newCost;
+                this.explorer[neighbour] = explorer;
+                this.push(neighbour, key(newCost, this.calcH_cost(neighbour, x, y)));  // an outdated entry will be skipped
+                this.stats.decreasedKeys++;
+            }
+
+            if(this.listener != null) {
+                long begin = System.nanoTime();
+                this.listener.onVisit(x, y, this.g_cost[neighbour], this.calcH_cost(neighbour, x, y));
+                this.stats.listenerNanos += System.nanoTime() - begin;
+            }
+        }
+    }
+
+    private void open(int index, int x, int y, int g_cost, int explorer) {
+        int h_cost = this.calcH_cost(index, x, y);
+        this.g_cost[index] = g_cost;
+        this.explorer[index] = explorer;
+        this.context.setOpened(index);
+        this.push(index, key(g_cost, h_cost));
+        this.openCount++;
+        this.stats.openedNodes++;
+        if(h_cost < this.closestH_cost) {  // h_cost of a cell doesn't change, its g_cost only decreases
+            this.closest = index;
+            this.closestH_cost = h_cost;
+        }
+    }
+
+    /**
+     * @return estimated distance from the cell to the target, never too high
+     */
+    private int calcH_cost(int index, int x, int y) {
+        if(this.landmarks == null) {
+            return Distance.octile(x, y, this.targetX, this.targetY);
+        }
+        return this.landmarks.lowerBound(index, x, y, this.targetX, this.targetY, this.landmarkDistances);
+    }
+
+    private void push(int index, long key) {
+        this.open.add(index, key);
+        if(this.open.size() > this.stats.peakOpenSize) {
+            this.stats.peakOpenSize = this.open.size();
+        }
+    }
+
+    /**
+     * Orders the open list by f_cost, equal f_costs by h_cost.
+     *
+     * @return f_cost in the upper, h_cost in the lower 32 bits
+     */
+    private static long key(int g_cost, int h_cost) {
+        return (long) (g_cost + h_cost) << 32 | h_cost;
+    }
+
+    /**
+     * Finishes the search and creates the result.
+     *
+     * @param found {@code true} if the target has been reached
+     */
+    private void finish(boolean found) {
+        if(!found) {
+            this.result = SearchResult.noPath(this.stats);
+            return;
+        }
+
+        this.result = new SearchResult(tracePath(this.explorer, this.target), this.g_cost[this.target], this.stats);
+    }
+
+    /**
+     * Follows the explorers back from the target to the start.
+     *
+     * @param explorer index of the cell every cell was explored from, -1 for the start
+     * @param target   index of the target
+     * @return cell indices from start to target
+     */
+    static int[] tracePath(int[] explorer, int target) {
+        int length = 0;
+        for(int index = target; index != NO_EXPLORER; index = explorer[index]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for(int index = target; index != NO_EXPLORER; index = explorer[index]) {  // until start (which doesn't have an explorer)
+            path[--length] = index;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,321 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntMinHeap;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Anytime Repairing A* (ARA*): finds a path quickly with an inflated heuristic, then improves it by searching again
+ * with smaller weights until the path is optimal or the {@code SearchBudget} is exhausted.
+ * <p>
+ * Every iteration orders the open list by {@code g + weight * h} and guarantees a path of at most {@code weight}
+ * times the optimal cost. The weight decreases by a fixed step, or right below the bound proven by the last
+ * iteration if that is lower. The following iterations don't start over: costs found so far are kept, and only the
+ * cells whose cost has decreased after they were explored are explored again. Each improved path is passed to the
+ * listener set with {@link AnytimeAStar#setOnImproved}; the search returns the last one, which is optimal if the
+ * budget lasted until the weight reached 1, or until the cells left to explore proved that no shorter path exists.
+ * <p>
+ * Weights are kept in hundredths. Not thread-safe, one search at a time.
+ *
+ * @see AStar
+ * @see SearchBudget
+ */
+public class AnytimeAStar implements PathFinder {
+    public static final double DEFAULT_INITIAL_WEIGHT = 3;
+    public static final double DEFAULT_WEIGHT_STEP = 0.5;
+    public static final double MAX_WEIGHT = 10;
+
+    private static final int NO_EXPLORER = -1;
+    private static final int WEIGHT_SCALE = 100;
+    private static final int TIE_BITS = 21;  // lower bits of the keys holding the h_cost, higher values all tie
+    private static final int MAX_TIE = (1 << TIE_BITS) - 1;
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final int initialWeight, weightStep;  // in hundredths
+
+    private final SearchContext context;  // opened: the cell has a g_cost in this search
+    private final int[] openIn, closedIn, inconsistentIn;  // iteration the cell was put on the open list, explored, found inconsistent
+    private int[] inconsistent = new int[64];  // explored cells whose g_cost decreased afterwards
+    private int inconsistentCount;
+    private int iteration;
+    private Consumer<SearchResult> onImproved;
+
+    // state of the running search
+    private int start, target, targetX, targetY;
+    private int weight;
+    private SearchStats stats;
+    private int closest, closestH_cost;  // touched cell with the lowest h_cost, end of a partial result
+    private double bound;  // of the last search
+
+    public AnytimeAStar(Grid grid) {
+        this(grid, DEFAULT_INITIAL_WEIGHT, DEFAULT_WEIGHT_STEP);
+    }
+
+    /**
+     * @param grid          grid to be searched
+     * @param initialWeight weight of the heuristic in the first iteration, from 1 up to {@value MAX_WEIGHT}
+     * @param weightStep    decrease of the weight per iteration, larger than 0
+     */
+    public AnytimeAStar(Grid grid, double initialWeight, double weightStep) {
+        if(initialWeight < 1 || initialWeight > MAX_WEIGHT || weightStep <= 0) {
+            throw new IllegalArgumentException("Error at AnytimeAStar: weight must be within 1 to " + MAX_WEIGHT + " and its step positive");
+        }
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.initialWeight = (int) Math.round(initialWeight * WEIGHT_SCALE);
+        this.weightStep = Math.max(1, (int) Math.round(weightStep * WEIGHT_SCALE));
+
+        this.context = new SearchContext(grid.size(), new IntMinHeap(Math.min(grid.size(), 1024)));  // inflated keys aren't consistent
+        this.openIn = new int[grid.size()];
+        this.closedIn = new int[grid.size()];
+        this.inconsistentIn = new int[grid.size()];
+    }
+
+    /**
+     * @param onImproved called with every path found, each shorter than the previous one; {@code null} for none
+     */
+    public void setOnImproved(Consumer<SearchResult> onImproved) {
+        this.onImproved = onImproved;
+    }
+
+    /**
+     * Searches without a budget, the result is optimal.
+     */
+    @Override
+    public SearchResult findPath(int startX, int startY, int targetX, int targetY) {
+        return this.findPath(startX, startY, targetX, targetY, null);
+    }
+
+    /**
+     * Searches until the path is optimal or the budget is exhausted.
+     *
+     * @param budget limits of the search, {@code null} for none
+     * @return the best path found; partial if the budget was exhausted before any path was found
+     * @see AnytimeAStar#getBound
+     */
+    public SearchResult findPath(int startX, int startY, int targetX, int targetY, SearchBudget budget) {
+        if(!this.grid.contains(startX, startY) || !this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at AnytimeAStar: start and target must lie within the grid");
+        }
+        long begin = System.nanoTime();
+        this.start = this.grid.index(startX, startY);
+        this.target = this.grid.index(targetX, targetY);
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.weight = this.initialWeight;
+        this.stats = new SearchStats();
+        this.closest = NO_EXPLORER;
+        this.closestH_cost = Integer.MAX_VALUE;
+        this.bound = Double.POSITIVE_INFINITY;
+
+        this.context.reset();
+        this.inconsistentCount = 0;
+        if(this.iteration > Integer.MAX_VALUE - 1024) {  // stamps of old iterations could be mistaken for new ones
+            Arrays.fill(this.openIn, 0);
+            Arrays.fill(this.closedIn, 0);
+            Arrays.fill(this.inconsistentIn, 0);
+            this.iteration = 0;
+        }
+        this.iteration++;
+        this.touch(this.start, startX, startY, 0, NO_EXPLORER);
+
+        SearchResult result = null;
+        boolean completed;
+        while(true) {
+            completed = this.improvePath(budget);
+            if(this.context.isOpened(this.target)) {
+                int[] path = AStar.tracePath(this.context.explorer, this.target);
+                int cost = this.cost(path);  // costs of cells on the way may have decreased since the target was reached
+                if(result == null || cost < result.getCost()) {
+                    result = new SearchResult(path, cost, this.stats);
+                    if(this.onImproved != null) {
+                        long listenerBegin = System.nanoTime();
+                        this.onImproved.accept(result);
+                        this.stats.listenerNanos += System.nanoTime() - listenerBegin;
+                    }
+                }
+            }
+            if(!completed || result == null) {  // stopped or unreachable target
+                break;
+            }
+
+            // cells left to explore can't lead to a path shorter than their lowest g + h
+            long lowest = this.collectOpen();
+            if(result.getCost() <= lowest || this.weight == WEIGHT_SCALE) {  // optimal
+                this.bound = 1;
+                break;
+            }
+            this.bound = Math.min((double) this.weight / WEIGHT_SCALE, (double) result.getCost() / lowest);
+            // weights above the proven bound wouldn't improve the path
+            this.weight = Math.max(WEIGHT_SCALE, Math.min(this.weight - this.weightStep, (int) (this.bound * WEIGHT_SCALE)));
+            this.reopen();
+        }
+
+        if(result == null) {
+            result = completed ? SearchResult.noPath(this.stats)
+                    : SearchResult.partial(AStar.tracePath(this.context.explorer, this.closest), this.g_cost(this.closest), this.stats);
+        }
+        this.stats.searchNanos = System.nanoTime() - begin - this.stats.listenerNanos;
+        return result;
+    }
+
+    /**
+     * Returns the guaranteed quality of the result of the last search: the weight of the last iteration completed
+     * with a path, or the lower ratio between its cost and the lowest {@code g + h} of the cells left to explore.
+     *
+     * @return the cost of the path is at most this factor times the optimal cost; 1 if it's optimal,
+     * {@code Double.POSITIVE_INFINITY} if no path has been found
+     */
+    public double getBound() {
+        return this.bound;
+    }
+
+    /**
+     * Explores cells until no open cell can lead to a shorter path to the target with the current weight.
+     *
+     * @return {@code false} if the budget was exhausted before
+     */
+    private boolean improvePath(SearchBudget budget) {
+        while(!this.context.open.isEmpty()) {
+            long key = this.context.open.firstKey();
+            int current = this.context.open.removeFirst();
+            if(this.openIn[current] != this.iteration) {  // outdated entry
+                continue;
+            }
+            // f of the target is its g_cost, no open cell can lead to a shorter path
+            boolean completed = this.context.isOpened(this.target) && (long) this.g_cost(this.target) * WEIGHT_SCALE <= key >>> TIE_BITS;
+            if(completed || budget != null && budget.isExhausted(this.stats.expandedNodes)) {
+                this.context.open.add(current, key);  // stays open for the next iteration
+                return completed;
+            }
+            this.openIn[current] = 0;
+            this.closedIn[current] = this.iteration;
+            this.exploreNeighbours(current);
+        }
+        return true;
+    }
+
+    private void exploreNeighbours(int explorer) {
+        int explorerY = explorer / this.width;
+        int explorerX = explorer - explorerY * this.width;
+        int explorerCost = this.g_cost(explorer);
+        this.stats.expandedNodes++;
+
+        for(int d = 0; d < Directions.COUNT; d++) {
+            int x = explorerX + Directions.DX[d];
+            int y = explorerY + Directions.DY[d];
+            if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                continue;
+            }
+            int neighbour = explorer + this.offsets[d];
+            if(this.grid.isBarrier(neighbour) || neighbour == this.start) {
+                continue;
+            }
+
+            int newCost = explorerCost + Directions.COST[d];
+            if(!this.context.isOpened(neighbour)) {
+                this.touch(neighbour, x, y, newCost, explorer);
+            }
+            else if(newCost < this.g_cost(neighbour)) {
+                this.context.g_cost[neighbour] = newCost;
+                this.context.explorer[neighbour] = explorer;
+                this.stats.decreasedKeys++;
+                if(this.closedIn[neighbour] != this.iteration) {
+                    this.push(neighbour, x, y);  // an outdated entry will be skipped
+                }
+                else if(this.inconsistentIn[neighbour] != this.iteration) {  // explored again in the next iteration
+                    this.inconsistentIn[neighbour] = this.iteration;
+                    this.addInconsistent(neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the open cells to the inconsistent ones, which are all opened again by {@link AnytimeAStar#reopen}.
+     *
+     * @return lowest {@code g + h} of these cells, {@code Long.MAX_VALUE} if there are none
+     */
+    private long collectOpen() {
+        while(!this.context.open.isEmpty()) {  // skipping outdated entries
+            int index = this.context.open.removeFirst();
+            if(this.openIn[index] == this.iteration) {
+                this.openIn[index] = 0;
+                this.addInconsistent(index);
+            }
+        }
+        long lowest = Long.MAX_VALUE;
+        for(int i = 0; i < this.inconsistentCount; i++) {
+            int index = this.inconsistent[i];
+            lowest = Math.min(lowest, (long) this.g_cost(index) + Distance.octile(this.grid.x(index), this.grid.y(index), this.targetX, this.targetY));
+        }
+        return lowest;
+    }
+
+    /**
+     * Starts the next iteration: the collected cells are opened again, keyed by the new weight.
+     */
+    private void reopen() {
+        this.iteration++;
+        for(int i = 0; i < this.inconsistentCount; i++) {
+            int index = this.inconsistent[i];
+            this.push(index, this.grid.x(index), this.grid.y(index));
+        }
+        this.inconsistentCount = 0;
+    }
+
+    private void addInconsistent(int index) {
+        if(this.inconsistentCount == this.inconsistent.length) {
+            this.inconsistent = Arrays.copyOf(this.inconsistent, this.inconsistentCount * 2);
+        }
+        this.inconsistent[this.inconsistentCount++] = index;
+    }
+
+    private void touch(int index, int x, int y, int g_cost, int explorer) {
+        this.context.g_cost[index] = g_cost;
+        this.context.explorer[index] = explorer;
+        this.context.setOpened(index);
+        this.stats.openedNodes++;
+        this.push(index, x, y);
+
+        int h_cost = Distance.octile(x, y, this.targetX, this.targetY);
+        if(h_cost < this.closestH_cost) {  // g_cost only decreases, the path to the cell stays valid
+            this.closest = index;
+            this.closestH_cost = h_cost;
+        }
+    }
+
+    /**
+     * Puts a cell on the open list of the current iteration, ordered by {@code g + weight * h}, equal values by h.
+     */
+    private void push(int index, int x, int y) {
+        int h_cost = Distance.octile(x, y, this.targetX, this.targetY);
+        long f = (long) this.g_cost(index) * WEIGHT_SCALE + (long) this.weight * h_cost;
+        this.openIn[index] = this.iteration;
+        this.context.open.add(index, f << TIE_BITS | Math.min(h_cost, MAX_TIE));
+        if(this.context.open.size() > this.stats.peakOpenSize) {
+            this.stats.peakOpenSize = this.context.open.size();
+        }
+    }
+
+    /**
+     * @return sum of the costs of the moves along the path
+     */
+    private int cost(int[] path) {
+        int cost = 0;
+        for(int i = 1; i < path.length; i++) {
+            boolean diagonal = this.grid.x(path[i]) != this.grid.x(path[i - 1]) && this.grid.y(path[i]) != this.grid.y(path[i - 1]);
+            cost += diagonal ? Distance.DIAGONAL : Distance.STRAIGHT;
+        }
+        return cost;
+    }
+
+    private int g_cost(int index) {
+        return this.context.g_cost[index];
+    }
+}
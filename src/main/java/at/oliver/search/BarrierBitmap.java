@@ -0,0 +1,241 @@
+package at.oliver.search;
+
+/**
+ * Barriers of a {@code Grid} as bits, one per cell, packed into {@code long}s row by row. Every row starts with a new
+ * word, cell x of a row is bit {@code x % 64} of its word {@code x / 64}; the bits past the end of a row are set, the
+ * border counts as barrier. The bitmap takes an eighth of the memory of the terrain, and 64 cells of a row are tested
+ * at once: {@link #nextBarrier} finds the next barrier of a row with {@link Long#numberOfTrailingZeros}.
+ * <p>
+ * The grid keeps its bitmaps up to date, see {@link Grid#getBarrierBitmap}. A bitmap of the columns holds the grid
+ * transposed: its rows are the columns of the grid, so a column is scanned like a row.
+ *
+ * @see Grid
+ */
+public final class BarrierBitmap {
+    private static final long ALL = -1L;  // 64 barriers
+
+    private final int width, height;  // of the bitmap, swapped if transposed
+    private final int wordsPerRow;
+    private final long[] words;
+
+    /**
+     * Reads the barriers of the grid.
+     *
+     * @param transposed {@code true} for a bitmap of the columns
+     */
+    BarrierBitmap(Grid grid, boolean transposed) {
+        this.width = transposed ? grid.getHeight() : grid.getWidth();
+        this.height = transposed ? grid.getWidth() : grid.getHeight();
+        this.wordsPerRow = (this.width + 63) >>> 6;
+        if((long) this.wordsPerRow * this.height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Error at BarrierBitmap: grid is too large for a bitmap of its " + (transposed ? "columns" : "rows"));
+        }
+        this.words = new long[this.wordsPerRow * this.height];
+
+        int padding = this.width & 63;
+        for(int y = 0; y < this.height; y++) {
+            if(padding != 0) {
+                this.words[(y + 1) * this.wordsPerRow - 1] = ALL << padding;
+            }
+            for(int x = 0; x < this.width; x++) {
+                if(grid.isBarrier(transposed ? grid.index(y, x) : grid.index(x, y))) {
+                    this.words[y * this.wordsPerRow + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return amount of cells of a row
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return amount of rows
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return {@code true} if the cell is a barrier or lies outside the grid
+     */
+    public boolean isBarrier(int x, int y) {
+        if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+            return true;
+        }
+        return (this.words[y * this.wordsPerRow + (x >>> 6)] & 1L << x) != 0;
+    }
+
+    /**
+     * Finds the first barrier of the row at or after the given cell.
+     *
+     * @param x x-position to start at
+     * @param y row within the grid
+     * @return x-position of the barrier, the width of the grid if there is none; x itself if it lies outside the row
+     */
+    public int nextBarrier(int x, int y) {
+        if(x < 0 || x >= this.width) {
+            return x;
+        }
+        int row = y * this.wordsPerRow;
+        int word = x >>> 6;
+        long bits = this.words[row + word] & ALL << x;
+        while(bits == 0) {
+            if(++word == this.wordsPerRow) {
+                return this.width;
+            }
+            bits = this.words[row + word];
+        }
+        return Math.min(word << 6 | Long.numberOfTrailingZeros(bits), this.width);
+    }
+
+    /**
+     * Finds the last barrier of the row at or before the given cell.
+     *
+     * @param x x-position to start at
+     * @param y row within the grid
+     * @return x-position of the barrier, -1 if there is none; x itself if it lies outside the row
+     */
+    public int previousBarrier(int x, int y) {
+        if(x < 0 || x >= this.width) {
+            return x;
+        }
+        int row = y * this.wordsPerRow;
+        int word = x >>> 6;
+        long bits = this.words[row + word] & ALL >>> (63 - (x & 63));
+        while(bits == 0) {
+            if(--word < 0) {
+                return -1;
+            }
+            bits = this.words[row + word];
+        }
+        return word << 6 | 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /**
+     * Tests a section of a row, a word at a time.
+     *
+     * @param fromX x-position of the first cell
+     * @param toX   x-position of the last cell, both included in either order
+     * @param y     row
+     * @return {@code true} if no cell of the section is a barrier or lies outside the grid
+     */
+    public boolean isFree(int fromX, int toX, int y) {
+        int first = Math.min(fromX, toX);
+        int last = Math.max(fromX, toX);
+        if(first < 0 || last >= this.width || y < 0 || y >= this.height) {
+            return false;
+        }
+        int word = first >>> 6;
+        if(word == last >>> 6) {  // within one word: a single mask
+            return (this.words[y * this.wordsPerRow + word] & ALL << first & ALL >>> (63 - (last & 63))) == 0;
+        }
+        return this.nextBarrier(first, y) > last;
+    }
+
+    /**
+     * Tests the cells crossed by the line between the centers of two cells, which is at least as long in x as in y,
+     * the cells of a row at once. In the row j steps away from the first cell, these are the cells from
+     * {@code (dy + (2j - 1) * dx) / 2dy} to {@code (dy + (2j + 1) * dx - 1) / 2dy} steps away in x: the line enters
+     * and leaves the row in between, rounded so that cells only touched at a corner are left out.
+     *
+     * @return {@code true} if none of the cells is a barrier, the first cell isn't tested
+     * @see Grid#hasLineOfSight
+     */
+    boolean isLineFree(int fromX, int fromY, int toX, int toY) {
+        int dx = Math.abs(toX - fromX);
+        int dy = Math.abs(toY - fromY);
+        int stepX = toX > fromX ? 1 : -1;
+        if(dy == 0) {
+            return dx == 0 || this.isFree(fromX + stepX, toX, fromY);
+        }
+
+        // the numerator of the border to the next row, as quotient and remainder of 2dy, follows the line row by row
+        int divisor = 2 * dy;
+        int stepQuotient = dx / dy, stepRemainder = (int) (2L * dx % divisor);
+        int quotient = (int) (((long) dy + dx) / divisor), remainder = (int) (((long) dy + dx) % divisor);
+        int first = 1;  // without the first cell
+        int row = fromY * this.wordsPerRow;
+        int stepRow = toY > fromY ? this.wordsPerRow : -this.wordsPerRow;
+        for(int j = 0; j < dy; j++) {
+            int last = remainder == 0 ? quotient - 1 : quotient;
+            if(first <= last && !this.isRunFree(fromX + stepX * first, fromX + stepX * last, row)) {
+                return false;
+            }
+            first = quotient;
+            quotient += stepQuotient;
+            remainder += stepRemainder;
+            if(remainder >= divisor) {
+                remainder -= divisor;
+                quotient++;
+            }
+            row += stepRow;
+        }
+        return this.isRunFree(fromX + stepX * first, toX, row);  // the last row ends at the last cell
+    }
+
+    /**
+     * @param row index of the first word of the row
+     * @return {@code true} if no cell between the x-positions, both included in either order, is a barrier
+     */
+    private boolean isRunFree(int fromX, int toX, int row) {
+        int low = Math.min(fromX, toX);
+        int high = Math.max(fromX, toX);
+        int word = low >>> 6;
+        if(word == high >>> 6) {
+            return (this.words[row + word] & ALL << low & ALL >>> (63 - (high & 63))) == 0;
+        }
+        return this.nextBarrier(low, row / this.wordsPerRow) > high;
+    }
+
+    /**
+     * Returns 64 cells of a row, starting at the given one.
+     *
+     * @param x x-position of the first cell, may lie outside the row
+     * @param y row, may lie outside the grid
+     * @return bit i set if the cell {@code x + i} is a barrier or lies outside the grid
+     */
+    long bitsFrom(int x, int y) {
+        if(y < 0 || y >= this.height || x >= this.width || x <= -64) {
+            return ALL;
+        }
+        if(x < 0) {
+            return this.bitsFrom(0, y) << -x | ALL >>> (64 + x);
+        }
+        int index = y * this.wordsPerRow + (x >>> 6);
+        int shift = x & 63;
+        long bits = this.words[index] >>> shift;
+        if(shift != 0) {
+            long next = (x >>> 6) + 1 < this.wordsPerRow ? this.words[index + 1] : ALL;
+            bits |= next << (64 - shift);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns 64 cells of a row, ending at the given one.
+     *
+     * @param x x-position of the last cell, may lie outside the row
+     * @param y row, may lie outside the grid
+     * @return bit 63 - i set if the cell {@code x - i} is a barrier or lies outside the grid
+     */
+    long bitsTo(int x, int y) {
+        return this.bitsFrom(x - 63, y);
+    }
+
+    /**
+     * Keeps the bitmap up to date, called by the grid.
+     */
+    void set(int x, int y, boolean barrier) {
+        int index = y * this.wordsPerRow + (x >>> 6);
+        if(barrier) {
+            this.words[index] |= 1L << x;
+        }
+        else {
+            this.words[index] &= ~(1L << x);
+        }
+    }
+}
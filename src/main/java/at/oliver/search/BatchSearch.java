@@ -0,0 +1,147 @@
+package at.oliver.search;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many searches between start and target pairs on the same {@code Grid} in parallel.
+ * The queries are split among the threads of a {@code ForkJoinPool}; every thread works with a {@code PathFinder}
+ * of its own, created by the {@code SearchAlgorithm} and reused for later queries, so no state is shared between
+ * searches running at the same time.
+ * <p>
+ * The grid is only read: it must not change while a batch is running, a {@link Grid#snapshot} can't. Between batches
+ * it may change: the {@code PathFinder}s kept from earlier batches belong to a {@link Grid#getVersion version} of the
+ * grid, they are dropped and created again once it differs. {@link BatchSearch#close} drops them for good, which
+ * unregisters those following the grid as {@code Grid.Listener}.
+ *
+ * @see SearchAlgorithm
+ */
+public class BatchSearch implements AutoCloseable {
+    private static final int MIN_QUERIES_PER_TASK = 16;  // smaller ranges aren't split any further
+
+    private final Grid grid;
+    private final SearchAlgorithm algorithm;
+    private final ForkJoinPool pool;
+    private final Queue<PathFinder> idleFinders = new ConcurrentLinkedQueue<>();  // created PathFinders not in use
+    private long version;  // of the grid the idle PathFinders were created for
+
+    /**
+     * Runs the queries on the common {@code ForkJoinPool}, whose parallelism is one less than the amount of cores.
+     *
+     * @param grid      grid to be searched
+     * @param algorithm algorithm of the searches
+     */
+    public BatchSearch(Grid grid, SearchAlgorithm algorithm) {
+        this(grid, algorithm, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param grid      grid to be searched
+     * @param algorithm algorithm of the searches
+     * @param pool      pool running the queries, its parallelism sets the amount of {@code PathFinder}s
+     */
+    public BatchSearch(Grid grid, SearchAlgorithm algorithm, ForkJoinPool pool) {
+        this.grid = grid;
+        this.algorithm = algorithm;
+        this.pool = pool;
+        this.version = grid.getVersion();
+    }
+
+    /**
+     * Searches the paths of all pairs and waits until every search has finished.
+     *
+     * @param starts  cell indices of the starts
+     * @param targets cell indices of the targets, the same amount as starts
+     * @return results in the order of the pairs
+     * @see Grid#index
+     */
+    public SearchResult[] findPaths(int[] starts, int[] targets) {
+        if(starts.length != targets.length) {
+            throw new IllegalArgumentException("Error at BatchSearch: every start needs a target");
+        }
+        for(int i = 0; i < starts.length; i++) {
+            if(starts[i] < 0 || starts[i] >= this.grid.size() || targets[i] < 0 || targets[i] >= this.grid.size()) {
+                throw new IllegalArgumentException("Error at BatchSearch: start and target of pair " + i + " must lie within the grid");
+            }
+        }
+
+        if(this.grid.getVersion() != this.version) {  // precomputations of the idle PathFinders are outdated
+            this.dropFinders();
+            this.version = this.grid.getVersion();
+        }
+
+        SearchResult[] results = new SearchResult[starts.length];
+        int tasks = Math.max(1, this.pool.getParallelism() * 4);  // some spare tasks balance searches of different lengths
+        int threshold = Math.max(MIN_QUERIES_PER_TASK, starts.length / tasks);
+        this.pool.invoke(new Queries(starts, targets, results, 0, starts.length, threshold));
+        return results;
+    }
+
+    /**
+     * Drops the idle {@code PathFinder}s, new ones are created by the next batch.
+     */
+    @Override
+    public void close() {
+        this.dropFinders();
+    }
+
+    private void dropFinders() {
+        for(PathFinder finder = this.idleFinders.poll(); finder != null; finder = this.idleFinders.poll()) {
+            if(finder instanceof Grid.Listener) {
+                this.grid.removeListener((Grid.Listener) finder);
+            }
+        }
+    }
+
+    /**
+     * Takes an idle {@code PathFinder} or creates a new one, if all are in use.
+     */
+    private PathFinder acquire() {
+        PathFinder finder = this.idleFinders.poll();
+        return finder == null ? this.algorithm.create(this.grid) : finder;
+    }
+
+    /**
+     * Range of queries, split in halves until it's small enough to be searched by one thread.
+     */
+    private class Queries extends RecursiveAction {
+        private static final long serialVersionUID = 1L;  // serializable as ForkJoinTask, never serialized
+
+        private final int[] starts, targets;
+        private final SearchResult[] results;
+        private final int from, to;  // range of the queries, to exclusive
+        private final int threshold;
+
+        Queries(int[] starts, int[] targets, SearchResult[] results, int from, int to, int threshold) {
+            this.starts = starts;
+            this.targets = targets;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from > this.threshold) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new Queries(this.starts, this.targets, this.results, this.from, middle, this.threshold),
+                        new Queries(this.starts, this.targets, this.results, middle, this.to, this.threshold));
+                return;
+            }
+
+            Grid grid = BatchSearch.this.grid;
+            PathFinder finder = BatchSearch.this.acquire();
+            try {
+                for(int i = this.from; i < this.to; i++) {
+                    this.results[i] = finder.findPath(grid.x(this.starts[i]), grid.y(this.starts[i]), grid.x(this.targets[i]), grid.y(this.targets[i]));
+                }
+            }
+            finally {
+                BatchSearch.this.idleFinders.add(finder);
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package at.oliver.search;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bidirectional A*: searches from the start and from the target at once, until the two searches prove that no
+ * path shorter than the best one found where they met can exist. On long routes both searches together explore
+ * about the area of two circles of half the distance, instead of one of the whole distance.
+ * <p>
+ * Both searches use the same potential, the average of the octile distances: {@code (h_target - h_start) / 2}
+ * forward and its negation backward. It's consistent in both directions, so every cell is explored at most once per
+ * direction, and the search can stop as soon as the lowest keys of both open lists add up to the cost of the best
+ * path. To stay in integers all keys are doubled. Paths have the same, optimal cost as those of {@code AStar}.
+ * <p>
+ * The parallel variant runs the backward search on the common {@code ForkJoinPool}; costs shared between the two
+ * searches are written and read with volatile semantics, so each pair of cells found by both is seen by at least one.
+ * Not thread-safe otherwise, one search at a time.
+ *
+ * @see AStar
+ */
+public class BidirectionalAStar implements PathFinder {
+    private static final int NO_CELL = -1;
+    private static final long NO_PATH = Long.MAX_VALUE;
+    private static final int MAX_KEY_STEP = 4 * Distance.DIAGONAL;  // doubled cost of a move plus the change of the potential
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final boolean parallel;
+    private final Side forward, backward;
+
+    // state of the running search
+    private int start, target, startX, startY, targetX, targetY;
+    private int distance;  // octile distance between start and target, keeps the keys positive
+    private final AtomicLong best = new AtomicLong(NO_PATH);  // cost of the best path in the upper, meeting cell in the lower 32 bits
+    private volatile boolean finished;
+
+    public BidirectionalAStar(Grid grid) {
+        this(grid, false);
+    }
+
+    /**
+     * @param grid     grid to be searched
+     * @param parallel {@code true} to search backward on another thread
+     */
+    public BidirectionalAStar(Grid grid, boolean parallel) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.parallel = parallel;
+        this.forward = new Side(true);
+        this.backward = new Side(false);
+        this.forward.other = this.backward;
+        this.backward.other = this.forward;
+    }
+
+    @Override
+    public SearchResult findPath(int startX, int startY, int targetX, int targetY) {
+        if(!this.grid.contains(startX, startY) || !this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at BidirectionalAStar: start and target must lie within the grid");
+        }
+        long begin = System.nanoTime();
+        SearchStats stats = new SearchStats();
+
+        this.start = this.grid.index(startX, startY);
+        this.target = this.grid.index(targetX, targetY);
+        if(this.start == this.target) {
+            stats.searchNanos = System.nanoTime() - begin;
+            return new SearchResult(new int[]{this.start}, 0, stats);
+        }
+        if(this.grid.isBarrier(this.target)) {  // can't be entered, like in AStar the start can be left
+            stats.searchNanos = System.nanoTime() - begin;
+            return SearchResult.noPath(stats);
+        }
+        this.startX = startX;
+        this.startY = startY;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.distance = Distance.octile(startX, startY, targetX, targetY);
+
+        this.best.set(NO_PATH);
+        this.finished = false;
+        this.forward.begin(this.start);
+        this.backward.begin(this.target);
+
+        if(this.parallel) {
+            ForkJoinTask<?> task = ForkJoinPool.commonPool().submit(this.backward::run);
+            this.forward.run();
+            task.join();
+        }
+        else {
+            while(!this.finished) {  // the side with the lower key goes on, so both grow evenly
+                Side side = this.forward.top <= this.backward.top ? this.forward : this.backward;
+                side.step();
+            }
+        }
+
+        SearchResult result = this.best.get() == NO_PATH ? SearchResult.noPath(stats) : new SearchResult(this.getPath(), (int) (this.best.get() >>> 32), stats);
+        this.forward.addStats(stats);
+        this.backward.addStats(stats);
+        stats.searchNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    /**
+     * Keeps the path through the cell if it's shorter than the best one so far.
+     */
+    private void offer(int cost, int cell) {
+        long path = (long) cost << 32 | cell;
+        long current = this.best.get();
+        while(path < current && !this.best.compareAndSet(current, path)) {
+            current = this.best.get();
+        }
+    }
+
+    /**
+     * Joins the paths of both searches at the meeting cell.
+     *
+     * @return cell indices from start to target
+     */
+    private int[] getPath() {
+        int meeting = (int) this.best.get();
+        int[] forwardExplorer = this.forward.context.explorer;
+        int[] backwardExplorer = this.backward.context.explorer;
+
+        int length = 0;
+        for(int index = meeting; index != NO_CELL; index = forwardExplorer[index]) {
+            length++;
+        }
+        int forwardLength = length;
+        for(int index = backwardExplorer[meeting]; index != NO_CELL; index = backwardExplorer[index]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+        int position = forwardLength;
+        for(int index = meeting; index != NO_CELL; index = forwardExplorer[index]) {
+            path[--position] = index;
+        }
+        position = forwardLength;
+        for(int index = backwardExplorer[meeting]; index != NO_CELL; index = backwardExplorer[index]) {
+            path[position++] = index;
+        }
+        return path;
+    }
+
+    /**
+     * One direction of the search. Backward, the explorer of a cell is the next cell towards the target.
+     */
+    private class Side {
+        private final boolean isForward;
+        private final SearchContext context;
+        private Side other;
+
+        private int top;  // lowest key on the open list
+        private volatile int sharedTop;  // top for the other thread, only written in the parallel variant
+        private int expandedNodes, openedNodes, decreasedKeys, peakOpenSize;
+
+        Side(boolean isForward) {
+            this.isForward = isForward;
+            this.context = new SearchContext(BidirectionalAStar.this.grid.size(), OpenLists.create(BidirectionalAStar.this.grid.size(), MAX_KEY_STEP));
+        }
+
+        void begin(int origin) {
+            this.context.reset();
+            this.expandedNodes = this.openedNodes = this.decreasedKeys = this.peakOpenSize = 0;
+            this.open(origin, 0, NO_CELL);
+            this.top = this.sharedTop = (int) (this.context.open.firstKey() >>> 32);
+        }
+
+        void run() {
+            while(!BidirectionalAStar.this.finished) {
+                this.step();
+            }
+        }
+
+        /**
+         * Explores the open cell with the lowest key, or finishes the search if no shorter path can be found.
+         */
+        void step() {
+            SearchContext context = this.context;
+            int current = NO_CELL;
+            while(current == NO_CELL && !context.open.isEmpty()) {
+                long key = context.open.firstKey();
+                int index = context.open.removeFirst();
+                if(!context.isClosed(index)) {  // skipping outdated entries
+                    current = index;
+                    this.top = (int) (key >>> 32);
+                }
+            }
+            if(current == NO_CELL) {  // everything reachable from this side has been explored
+                BidirectionalAStar.this.finished = true;
+                return;
+            }
+
+            int otherTop = this.other.top;
+            if(BidirectionalAStar.this.parallel) {
+                this.sharedTop = this.top;
+                otherTop = this.other.sharedTop;
+            }
+            long best = BidirectionalAStar.this.best.get() >>> 32;
+            if(best != NO_PATH >>> 32 && (long) this.top + otherTop >= 2 * (best + BidirectionalAStar.this.distance)) {  // keys of a cell add up to twice its path plus twice the distance
+                BidirectionalAStar.this.finished = true;
+                return;
+            }
+
+            context.setClosed(current);
+            this.expandedNodes++;
+            this.exploreNeighbours(current);
+        }
+
+        private void exploreNeighbours(int explorer) {
+            SearchContext context = this.context;
+            Grid grid = BidirectionalAStar.this.grid;
+            int width = BidirectionalAStar.this.width;
+            int explorerY = explorer / width;
+            int explorerX = explorer - explorerY * width;
+            int explorerCost = context.g_cost[explorer];
+
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int x = explorerX + Directions.DX[d];
+                int y = explorerY + Directions.DY[d];
+                if(x < 0 || y < 0 || x >= width || y >= BidirectionalAStar.this.height) {
+                    continue;
+                }
+                int neighbour = explorer + BidirectionalAStar.this.offsets[d];
+                // forward moves enter the neighbour, backward moves leave it; the start can be left even if it's a barrier
+                if(grid.isBarrier(neighbour) && (this.isForward || neighbour != BidirectionalAStar.this.start) || context.isClosed(neighbour)) {
+                    continue;
+                }
+
+                int newCost = explorerCost + Directions.COST[d];
+                if(!context.isOpened(neighbour)) {
+                    this.open(neighbour, newCost, explorer);
+                }
+                else if(newCost < context.g_cost[neighbour]) {
+                    this.open(neighbour, newCost, explorer);  // an outdated entry will be skipped
+                    this.decreasedKeys++;
+                }
+                else {
+                    continue;
+                }
+
+                int otherCost = this.other.getG_cost(neighbour);
+                if(otherCost >= 0) {
+                    BidirectionalAStar.this.offer(newCost + otherCost, neighbour);
+                }
+            }
+        }
+
+        private void open(int index, int g_cost, int explorer) {
+            SearchContext context = this.context;
+            if(!context.isOpened(index)) {
+                this.openedNodes++;
+            }
+            context.explorer[index] = explorer;
+            if(BidirectionalAStar.this.parallel) {
+                context.setG_costVolatile(index, g_cost);
+            }
+            else {
+                context.g_cost[index] = g_cost;
+                context.setOpened(index);
+            }
+            context.open.add(index, this.key(index, g_cost));
+            if(context.open.size() > this.peakOpenSize) {
+                this.peakOpenSize = context.open.size();
+            }
+        }
+
+        /**
+         * @return g_cost of the cell in this direction, -1 if it has not been opened
+         */
+        private int getG_cost(int index) {
+            if(BidirectionalAStar.this.parallel) {
+                return this.context.getG_costVolatile(index);
+            }
+            return this.context.isOpened(index) ? this.context.g_cost[index] : -1;
+        }
+
+        /**
+         * Orders the open list by twice the g_cost plus the potential, moved up by the distance so it's never negative.
+         * Equal keys by the distance to the cell this side is heading for.
+         */
+        private long key(int index, int g_cost) {
+            int x = index % BidirectionalAStar.this.width;
+            int y = index / BidirectionalAStar.this.width;
+            int toTarget = Distance.octile(x, y, BidirectionalAStar.this.targetX, BidirectionalAStar.this.targetY);
+            int toStart = Distance.octile(x, y, BidirectionalAStar.this.startX, BidirectionalAStar.this.startY);
+            int potential = this.isForward ? toTarget - toStart : toStart - toTarget;
+            return (long) (2 * g_cost + potential + BidirectionalAStar.this.distance) << 32 | (this.isForward ? toTarget : toStart);
+        }
+
+        void addStats(SearchStats stats) {
+            stats.expandedNodes += this.expandedNodes;
+            stats.openedNodes += this.openedNodes;
+            stats.decreasedKeys += this.decreasedKeys;
+            stats.peakOpenSize += this.peakOpenSize;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntHeap;
+import at.oliver.heap.IntMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * Collision-free routes of many agents on the same {@code Grid}, by Windowed Hierarchical Cooperative A* (WHCA*).
+ * <p>
+ * Every agent plans a window of the next time steps with an A* over space and time: moving to a neighbour or waiting
+ * takes one step, cells reserved by other agents at that step are avoided, like swapping cells with another agent.
+ * The plan is put into a {@code ReservationTable}, so agents planning later avoid it. Beyond the window, the octile
+ * distance to the target stands in for the rest of the route. Waiting costs like a straight move, except on the target.
+ * <p>
+ * Every agent always holds reservations up to the end of the window: a plan ending earlier waits on its last cell,
+ * which is chosen to stay free until then, and every tick the agents extend their reservations by a step at their
+ * last cell. So no agent can plan into the cell of another one, even if that one has no way to move on. A new plan
+ * is only taken if it has such an end, otherwise the agent keeps its previous one.
+ * <p>
+ * Agents replan after half of their window, staggered so that only a share of them plans at every {@link #tick}:
+ * with a window of {@code w}, each tick plans about {@code 2 / w} of the agents. A window search expands at most
+ * {@value EXPANSIONS_PER_STEP} nodes per time step; an agent whose search is cut short follows the deepest part
+ * found and replans earlier. The octile distance doesn't know barriers, an agent can get stuck in a dead end which is
+ * larger than the window.
+ * <p>
+ * Agents moving crosswise can still pass each other diagonally. The grid must not change while agents move.
+ * Not thread-safe.
+ *
+ * @see ReservationTable
+ */
+public class CooperativeAStar {
+    public static final int DEFAULT_WINDOW = 16;
+    public static final int MAX_WINDOW = 1024;
+
+    private static final int EXPANSIONS_PER_STEP = 32;
+    private static final int WAIT = Directions.COUNT;  // move after the eight directions
+    private static final int NO_NODE = -1;
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final int window, half;
+    private final ReservationTable reservations;
+    private int time;
+
+    private int agentCount;
+    private int[] positions = new int[16];
+    private int[] targets = new int[16];
+    private int[][] plans = new int[16][];  // cells of the agent from its plan start on, at least to the window's end
+    private int[] planStarts = new int[16];
+    private int[] planLengths = new int[16];
+    private int[] nextPlans = new int[16];  // time step of the next planning
+    private final int[] newPlan;  // of the agent being planned, copied to its plan if taken
+
+    // nodes of the window search, a node is a cell at a depth of the window
+    private final int maxExpansions;
+    private final int[] nodeCells, nodeDepths, nodeG_costs, nodeParents;
+    private final boolean[] nodeClosed;
+    private int nodeCount;
+    private final long[] slotKeys;  // depth in the upper, cell in the lower 32 bits
+    private final int[] slotNodes, slotStamps;  // slots of earlier searches are empty
+    private int epoch;
+    private final IntHeap open = new IntMinHeap(256);
+
+    public CooperativeAStar(Grid grid) {
+        this(grid, DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param grid   grid the agents move on
+     * @param window time steps planned ahead by every agent
+     */
+    public CooperativeAStar(Grid grid, int window) {
+        if(window < 2 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("Error at CooperativeAStar: window must be within range 2 to " + MAX_WINDOW);
+        }
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.window = window;
+        this.half = window / 2;
+        this.newPlan = new int[window + 1];
+        this.reservations = new ReservationTable(1024);
+
+        this.maxExpansions = window * EXPANSIONS_PER_STEP;
+        int maxNodes = this.maxExpansions * (WAIT + 1) + 1;  // every expansion creates up to nine nodes
+        this.nodeCells = new int[maxNodes];
+        this.nodeDepths = new int[maxNodes];
+        this.nodeG_costs = new int[maxNodes];
+        this.nodeParents = new int[maxNodes];
+        this.nodeClosed = new boolean[maxNodes];
+        int slots = Integer.highestOneBit(maxNodes) << 2;  // load of at most a half
+        this.slotKeys = new long[slots];
+        this.slotNodes = new int[slots];
+        this.slotStamps = new int[slots];
+    }
+
+    /**
+     * Adds an agent, which plans its route within the next ticks and waits on its start until then.
+     *
+     * @param startX  x-position of the start
+     * @param startY  y-position of the start
+     * @param targetX x-position of the target
+     * @param targetY y-position of the target
+     * @return number of the agent
+     * @throws IllegalArgumentException if another agent reserved the start within the window
+     */
+    public int addAgent(int startX, int startY, int targetX, int targetY) {
+        if(!this.grid.contains(startX, startY) || !this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at CooperativeAStar: start and target must lie within the grid");
+        }
+        int start = this.grid.index(startX, startY);
+        for(int step = 0; step <= this.window; step++) {
+            if(this.reservations.agentAt(start, this.time + step) != ReservationTable.NONE) {
+                throw new IllegalArgumentException("Error at CooperativeAStar: start is reserved by another agent");
+            }
+        }
+        if(this.agentCount == this.positions.length) {
+            int capacity = this.agentCount * 2;
+            this.positions = Arrays.copyOf(this.positions, capacity);
+            this.targets = Arrays.copyOf(this.targets, capacity);
+            this.plans = Arrays.copyOf(this.plans, capacity);
+            this.planStarts = Arrays.copyOf(this.planStarts, capacity);
+            this.planLengths = Arrays.copyOf(this.planLengths, capacity);
+            this.nextPlans = Arrays.copyOf(this.nextPlans, capacity);
+        }
+        int agent = this.agentCount++;
+        this.positions[agent] = start;
+        this.targets[agent] = this.grid.index(targetX, targetY);
+        this.plans[agent] = new int[2 * (this.window + 1)];  // a plan is extended until the agent's next planning
+
+        // waiting on the start, the first plannings are spread over half a window
+        for(int step = 0; step <= this.window; step++) {
+            this.plans[agent][step] = start;
+            this.reservations.reserve(start, this.time + step, agent);
+        }
+        this.planStarts[agent] = this.time;
+        this.planLengths[agent] = this.window + 1;
+        this.nextPlans[agent] = this.time + agent % this.half;
+        return agent;
+    }
+
+    /**
+     * Gives the agent a new target, it replans on the next tick.
+     */
+    public void setTarget(int agent, int targetX, int targetY) {
+        this.checkAgent(agent);
+        if(!this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at CooperativeAStar: target must lie within the grid");
+        }
+        this.targets[agent] = this.grid.index(targetX, targetY);
+        this.nextPlans[agent] = this.time;
+    }
+
+    /**
+     * Extends the reservations of every agent to the end of the window by waiting on its last cell, then plans the
+     * agents whose turn it is and moves every agent one step along its plan.
+     *
+     * @return statistics of the window searches of this tick
+     */
+    public SearchStats tick() {
+        long begin = System.nanoTime();
+        SearchStats stats = new SearchStats();
+        this.reservations.setTime(this.time);
+        for(int agent = 0; agent < this.agentCount; agent++) {
+            this.extend(agent);
+        }
+        for(int agent = 0; agent < this.agentCount; agent++) {
+            if(this.nextPlans[agent] <= this.time) {
+                this.plan(agent, stats);
+            }
+        }
+
+        this.time++;
+        for(int agent = 0; agent < this.agentCount; agent++) {
+            this.positions[agent] = this.plans[agent][this.time - this.planStarts[agent]];
+        }
+        stats.searchNanos = System.nanoTime() - begin;
+        return stats;
+    }
+
+    public int getTime() {
+        return this.time;
+    }
+
+    public int getAgentCount() {
+        return this.agentCount;
+    }
+
+    /**
+     * @return cell index of the agent's position
+     * @see Grid#index
+     */
+    public int getPosition(int agent) {
+        this.checkAgent(agent);
+        return this.positions[agent];
+    }
+
+    public int getX(int agent) {
+        return this.grid.x(this.getPosition(agent));
+    }
+
+    public int getY(int agent) {
+        return this.grid.y(this.getPosition(agent));
+    }
+
+    public boolean isArrived(int agent) {
+        return this.getPosition(agent) == this.targets[agent];
+    }
+
+    /**
+     * @return cell indices the agent has reserved, from its position on
+     */
+    public int[] getPlan(int agent) {
+        this.checkAgent(agent);
+        int from = Math.min(this.time - this.planStarts[agent], this.planLengths[agent] - 1);
+        return Arrays.copyOfRange(this.plans[agent], from, this.planLengths[agent]);
+    }
+
+    private void checkAgent(int agent) {
+        if(agent < 0 || agent >= this.agentCount) {
+            throw new IllegalArgumentException("Error at CooperativeAStar: there is no agent " + agent);
+        }
+    }
+
+    /**
+     * Reserves the last cell of the agent's plan for one more step, if the plan doesn't reach the end of the window.
+     * No other agent can have reserved it: the plans made so far end within the window of the previous tick.
+     */
+    private void extend(int agent) {
+        int length = this.planLengths[agent];
+        if(this.planStarts[agent] + length - 1 >= this.time + this.window) {
+            return;
+        }
+        if(length == this.plans[agent].length) {
+            this.plans[agent] = Arrays.copyOf(this.plans[agent], length * 2);
+        }
+        int last = this.plans[agent][length - 1];
+        this.plans[agent][length] = last;
+        this.reservations.reserve(last, this.planStarts[agent] + length, agent);
+        this.planLengths[agent]++;
+    }
+
+    /**
+     * Replaces the reservations of the agent after the current time step by a new plan for the window, if a plan
+     * with an end free until the end of the window is found. Otherwise the previous plan is kept.
+     */
+    private void plan(int agent, SearchStats stats) {
+        int depth;
+        int[] plan = this.newPlan;
+        if(this.positions[agent] == this.targets[agent] && this.isFreeAfter(agent, this.targets[agent], 0)) {
+            depth = this.window;  // staying on the target is the best plan, no search needed
+            Arrays.fill(plan, this.targets[agent]);
+        }
+        else {
+            int last = this.search(agent, stats);
+            if(last == NO_NODE) {
+                this.nextPlans[agent] = this.time + 1;
+                return;
+            }
+            depth = this.nodeDepths[last];
+            for(int node = last; node != NO_NODE; node = this.nodeParents[node]) {
+                plan[this.nodeDepths[node]] = this.nodeCells[node];
+            }
+            Arrays.fill(plan, depth + 1, plan.length, plan[depth]);  // waiting on the end
+        }
+
+        int[] previous = this.plans[agent];
+        for(int step = this.time - this.planStarts[agent] + 1; step < this.planLengths[agent]; step++) {
+            this.reservations.release(previous[step], this.planStarts[agent] + step);
+        }
+        for(int step = 1; step < plan.length; step++) {
+            this.reservations.reserve(plan[step], this.time + step, agent);
+        }
+        System.arraycopy(plan, 0, previous, 0, plan.length);
+        this.planStarts[agent] = this.time;
+        this.planLengths[agent] = plan.length;
+        // a full window lasts until the next turn with half a window to spare, a shorter one is replanned earlier
+        this.nextPlans[agent] = this.time + Math.max(1, depth - this.half);
+    }
+
+    /**
+     * @return {@code true} if no other agent reserved the cell after the given depth until the end of the window
+     */
+    private boolean isFreeAfter(int agent, int cell, int depth) {
+        for(int step = depth + 1; step <= this.window; step++) {
+            if(!this.isFree(agent, cell, this.time + step)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the cell isn't reserved at the time step, or by the agent itself
+     */
+    private boolean isFree(int agent, int cell, int time) {
+        int other = this.reservations.agentAt(cell, time);
+        return other == ReservationTable.NONE || other == agent;
+    }
+
+    /**
+     * A* over the cells and time steps of the window, starting at the agent's position. The reservations of the agent
+     * itself are ignored, they are replaced by the new plan.
+     *
+     * @return node at the end of the window, or the deepest one explored whose cell stays free until then if the
+     * search was cut short; {@value NO_NODE} if there is none
+     */
+    private int search(int agent, SearchStats stats) {
+        int start = this.positions[agent];
+        int target = this.targets[agent];
+        int targetX = this.grid.x(target);
+        int targetY = this.grid.y(target);
+
+        this.nodeCount = 0;
+        if(++this.epoch == Integer.MAX_VALUE) {  // stamps of old epochs could be mistaken for new ones
+            Arrays.fill(this.slotStamps, 0);
+            this.epoch = 1;
+        }
+        this.open.clear();
+        this.addNode(start, 0, 0, NO_NODE, Distance.octile(this.grid.x(start), this.grid.y(start), targetX, targetY));
+        int best = NO_NODE;
+        int expansions = 0;
+        while(!this.open.isEmpty() && expansions < this.maxExpansions) {
+            int node = this.open.removeFirst();
+            if(this.nodeClosed[node]) {  // skipping outdated entries
+                continue;
+            }
+            this.nodeClosed[node] = true;
+            expansions++;
+            int depth = this.nodeDepths[node];
+            // popped by f_cost, the first node of a depth with a free end has the lowest
+            if((best == NO_NODE || depth > this.nodeDepths[best]) && this.isFreeAfter(agent, this.nodeCells[node], depth)) {
+                best = node;
+            }
+            if(depth == this.window) {
+                break;
+            }
+
+            int cell = this.nodeCells[node];
+            int cellY = cell / this.width;
+            int cellX = cell - cellY * this.width;
+            int time = this.time + depth + 1;  // of the neighbours
+            for(int d = 0; d <= WAIT; d++) {
+                int x = cellX, y = cellY, neighbour = cell, cost;
+                if(d == WAIT) {
+                    cost = cell == target ? 0 : Distance.STRAIGHT;
+                }
+                else {
+                    x += Directions.DX[d];
+                    y += Directions.DY[d];
+                    if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                        continue;
+                    }
+                    neighbour += this.offsets[d];
+                    if(this.grid.isBarrier(neighbour)) {
+                        continue;
+                    }
+                    cost = Directions.COST[d];
+                }
+                if(!this.isFree(agent, neighbour, time)) {
+                    continue;
+                }
+                if(d != WAIT) {  // another agent moving the opposite way would swap cells with this one
+                    int other = this.reservations.agentAt(neighbour, time - 1);
+                    if(other != ReservationTable.NONE && other != agent && this.reservations.agentAt(cell, time) == other) {
+                        continue;
+                    }
+                }
+
+                int g_cost = this.nodeG_costs[node] + cost;
+                int existing = this.findNode(neighbour, depth + 1);
+                if(existing == NO_NODE) {
+                    this.addNode(neighbour, depth + 1, g_cost, node, Distance.octile(x, y, targetX, targetY));
+                }
+                else if(!this.nodeClosed[existing] && g_cost < this.nodeG_costs[existing]) {
+                    this.nodeG_costs[existing] = g_cost;
+                    this.nodeParents[existing] = node;
+                    this.open.add(existing, key(g_cost, Distance.octile(x, y, targetX, targetY)));  // an outdated entry will be skipped
+                    stats.decreasedKeys++;
+                }
+            }
+        }
+
+        stats.expandedNodes += expansions;
+        stats.openedNodes += this.nodeCount;
+        stats.peakOpenSize = Math.max(stats.peakOpenSize, this.open.size());
+        return best;
+    }
+
+    private int addNode(int cell, int depth, int g_cost, int parent, int h_cost) {
+        int node = this.nodeCount++;
+        this.nodeCells[node] = cell;
+        this.nodeDepths[node] = depth;
+        this.nodeG_costs[node] = g_cost;
+        this.nodeParents[node] = parent;
+        this.nodeClosed[node] = false;
+
+        long key = slotKey(cell, depth);
+        int slot = ReservationTable.hash(key) & (this.slotKeys.length - 1);
+        while(this.slotStamps[slot] == this.epoch) {
+            slot = (slot + 1) & (this.slotKeys.length - 1);
+        }
+        this.slotKeys[slot] = key;
+        this.slotNodes[slot] = node;
+        this.slotStamps[slot] = this.epoch;
+        this.open.add(node, key(g_cost, h_cost));
+        return node;
+    }
+
+    /**
+     * @return node of the cell at the depth in the current search, {@value NO_NODE} if there is none
+     */
+    private int findNode(int cell, int depth) {
+        long key = slotKey(cell, depth);
+        for(int slot = ReservationTable.hash(key) & (this.slotKeys.length - 1); this.slotStamps[slot] == this.epoch; slot = (slot + 1) & (this.slotKeys.length - 1)) {
+            if(this.slotKeys[slot] == key) {
+                return this.slotNodes[slot];
+            }
+        }
+        return NO_NODE;
+    }
+
+    private static long slotKey(int cell, int depth) {
+        return (long) depth << 32 | cell;
+    }
+
+    /**
+     * Orders the open list by f_cost, equal f_costs by h_cost.
+     *
+     * @return f_cost in the upper, h_cost in the lower 32 bits
+     */
+    private static long key(int g_cost, int h_cost) {
+        return (long) (g_cost + h_cost) << 32 | h_cost;
+    }
+}
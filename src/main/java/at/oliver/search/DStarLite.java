@@ -0,0 +1,303 @@
+package at.oliver.search;
+
+import at.oliver.heap.IndexedIntHeap;
+
+import java.util.Arrays;
+
+/**
+ * D* Lite: incremental replanning between a moving start and a fixed target. The search runs backwards from
+ * the target; g_cost and rhs (the one-step lookahead of the g_cost) of every cell are kept between searches.
+ * After the terrain has changed only the cells whose g_cost becomes outdated are explored again, instead of
+ * searching from scratch. As long as the start isn't moved, this is Lifelong Planning A* (LPA*).
+ * <p>
+ * Cells are connected like in {@code AStar}, a move needs both cells to be walkable. Changes are collected as
+ * {@code Grid.Listener} and repaired on the next {@link DStarLite#findPath}. The state takes about 25 bytes per cell.
+ * Not thread-safe, one search at a time.
+ *
+ * @see AStar
+ */
+public class DStarLite implements Grid.Listener, AutoCloseable {
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final int target;
+
+    private final int[] g_cost;  // distance to the target, INFINITE if unknown
+    private final int[] rhs;  // lowest g_cost of a neighbour plus the cost of the move, 0 for the target
+    private final IndexedIntHeap open;  // cells whose g_cost and rhs differ
+    private int start, last;  // last: start when the keys were last adjusted
+    private int keyModifier;  // sum of the h_costs between all starts, keeps the keys on the open list valid
+
+    private int[] changed = new int[16];  // cells whose terrain changed since the last search
+    private int changedCount;
+
+    /**
+     * Prepares a search and registers it as {@code Grid.Listener}, unless the grid is read-only.
+     * Nothing is explored before the first search. {@link DStarLite#close} unregisters it again.
+     *
+     * @param grid    grid to be searched
+     * @param startX  x-position of the start
+     * @param startY  y-position of the start
+     * @param targetX x-position of the target
+     * @param targetY y-position of the target
+     * @return D* Lite between start and target
+     */
+    public static DStarLite create(Grid grid, int startX, int startY, int targetX, int targetY) {
+        DStarLite search = new DStarLite(grid, startX, startY, targetX, targetY);
+        if(!grid.isReadOnly()) {
+            grid.addListener(search);
+        }
+        return search;
+    }
+
+    private DStarLite(Grid grid, int startX, int startY, int targetX, int targetY) {
+        if(!grid.contains(startX, startY) || !grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at DStarLite: start and target must lie within the grid");
+        }
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.start = this.last = grid.index(startX, startY);
+        this.target = grid.index(targetX, targetY);
+
+        this.g_cost = new int[grid.size()];
+        this.rhs = new int[grid.size()];
+        Arrays.fill(this.g_cost, INFINITE);
+        Arrays.fill(this.rhs, INFINITE);
+        this.open = IndexedIntHeap.quaternary(grid.size());
+
+        this.rhs[this.target] = 0;
+        this.open.add(this.target, this.key(this.target));
+    }
+
+    /**
+     * Collects the changed cell, its neighbours are repaired on the next search.
+     */
+    @Override
+    public void terrainChanged(int x, int y) {
+        if(this.changedCount == this.changed.length) {
+            this.changed = Arrays.copyOf(this.changed, this.changed.length * 2);
+        }
+        this.changed[this.changedCount++] = this.grid.index(x, y);
+    }
+
+    /**
+     * Stops following the changes of the grid, later changes aren't repaired anymore.
+     */
+    @Override
+    public void close() {
+        this.grid.removeListener(this);
+    }
+
+    /**
+     * Moves the start, e.g. along the path while it is being walked. The target stays the same.
+     *
+     * @param x x-position of the new start
+     * @param y y-position of the new start
+     */
+    public void moveStart(int x, int y) {
+        if(!this.grid.contains(x, y)) {
+            throw new IllegalArgumentException("Error at DStarLite: start must lie within the grid");
+        }
+        this.start = this.grid.index(x, y);
+    }
+
+    /**
+     * Repairs the g_costs after terrain changes and start moves, and returns the shortest path from the current start.
+     * The statistics only count the work done by this call.
+     *
+     * @return path from the start to the target
+     */
+    public SearchResult findPath() {
+        long begin = System.nanoTime();
+        SearchStats stats = new SearchStats();
+
+        if(this.start != this.last) {  // all keys decrease by at most the h_cost between the starts
+            this.keyModifier += this.heuristic(this.last);
+            this.last = this.start;
+        }
+        for(int i = 0; i < this.changedCount; i++) {
+            this.repair(this.changed[i], stats);
+        }
+        this.changedCount = 0;
+
+        int[] path = null;
+        if(this.start == this.target || !this.grid.isBarrier(this.start)) {  // a barrier would never become consistent
+            this.computeShortestPath(stats);
+            path = this.getPath();
+        }
+
+        stats.searchNanos = System.nanoTime() - begin;
+        return path == null ? SearchResult.noPath(stats) : new SearchResult(path, this.rhs[this.start], stats);
+    }
+
+    /**
+     * Recalculates the rhs of a changed cell and its neighbours, all moves between them changed their cost.
+     */
+    private void repair(int cell, SearchStats stats) {
+        int cellY = cell / this.width;
+        int cellX = cell - cellY * this.width;
+        this.updateRhs(cell, stats);
+        for(int d = 0; d < Directions.COUNT; d++) {
+            if(this.contains(cellX + Directions.DX[d], cellY + Directions.DY[d])) {
+                this.updateRhs(cell + this.offsets[d], stats);
+            }
+        }
+    }
+
+    /**
+     * Explores the inconsistent cells until the g_cost of the start is correct.
+     */
+    private void computeShortestPath(SearchStats stats) {
+        while(!this.open.isEmpty() && (this.open.firstKey() < this.key(this.start) || this.rhs[this.start] > this.g_cost[this.start])) {
+            long oldKey = this.open.firstKey();
+            int current = this.open.removeFirst();
+            long newKey = this.key(current);
+            if(oldKey < newKey) {  // the start has moved since the cell was put on the open list
+                this.open.add(current, newKey);
+                continue;
+            }
+            stats.expandedNodes++;
+
+            int currentY = current / this.width;
+            int currentX = current - currentY * this.width;
+            if(this.g_cost[current] > this.rhs[current]) {  // overconsistent: the g_cost decreases
+                int cost = this.g_cost[current] = this.rhs[current];
+                for(int d = 0; d < Directions.COUNT; d++) {
+                    int neighbour = current + this.offsets[d];
+                    if(!this.isConnected(currentX, currentY, d) || neighbour == this.target) {
+                        continue;
+                    }
+                    if(cost + Directions.COST[d] < this.rhs[neighbour]) {
+                        this.rhs[neighbour] = cost + Directions.COST[d];
+                        this.updateCell(neighbour, stats);
+                    }
+                }
+            }
+            else {  // underconsistent: the g_cost increases, neighbours relying on it look for another one
+                int oldCost = this.g_cost[current];
+                this.g_cost[current] = INFINITE;
+                this.updateCell(current, stats);
+                for(int d = 0; d < Directions.COUNT; d++) {
+                    int neighbour = current + this.offsets[d];
+                    if(this.isConnected(currentX, currentY, d) && this.rhs[neighbour] == oldCost + Directions.COST[d]) {
+                        this.updateRhs(neighbour, stats);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the rhs of the cell to the lowest g_cost of its neighbours plus the cost of the move.
+     */
+    private void updateRhs(int cell, SearchStats stats) {
+        if(cell == this.target) {
+            return;
+        }
+        int cellY = cell / this.width;
+        int cellX = cell - cellY * this.width;
+
+        int lowest = INFINITE;
+        if(!this.grid.isBarrier(cell)) {
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int neighbour = cell + this.offsets[d];
+                if(this.isConnected(cellX, cellY, d) && this.g_cost[neighbour] != INFINITE) {
+                    lowest = Math.min(lowest, this.g_cost[neighbour] + Directions.COST[d]);
+                }
+            }
+        }
+        this.rhs[cell] = lowest;
+        this.updateCell(cell, stats);
+    }
+
+    /**
+     * Puts the cell on the open list if its g_cost and rhs differ, removes it otherwise.
+     */
+    private void updateCell(int cell, SearchStats stats) {
+        if(this.g_cost[cell] == this.rhs[cell]) {
+            this.open.remove(cell);
+            return;
+        }
+        if(!this.open.contains(cell)) {
+            stats.openedNodes++;
+        }
+        this.open.update(cell, this.key(cell));
+        if(this.open.size() > stats.peakOpenSize) {
+            stats.peakOpenSize = this.open.size();
+        }
+    }
+
+    /**
+     * Follows the lowest g_cost from the start to the target.
+     *
+     * @return cell indices from start to target, {@code null} if the target can't be reached
+     */
+    private int[] getPath() {
+        if(this.rhs[this.start] == INFINITE) {
+            return null;
+        }
+        int[] path = new int[16];
+        int length = 0;
+        int current = this.start;
+        path[length++] = current;
+        while(current != this.target) {
+            int currentY = current / this.width;
+            int currentX = current - currentY * this.width;
+
+            int next = -1;
+            long lowest = INFINITE;
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int neighbour = current + this.offsets[d];
+                if(this.isConnected(currentX, currentY, d) && (long) this.g_cost[neighbour] + Directions.COST[d] < lowest) {
+                    lowest = (long) this.g_cost[neighbour] + Directions.COST[d];
+                    next = neighbour;
+                }
+            }
+            if(next == -1 || length == this.grid.size()) {
+                throw new IllegalStateException("Error at DStarLite: g_costs are inconsistent");
+            }
+
+            if(length == path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[length++] = current = next;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Orders the open list by the estimated cost of a path through the cell, equal ones by the g_cost.
+     *
+     * @return estimated cost in the upper, g_cost in the lower 32 bits, {@code Long.MAX_VALUE} if both costs are infinite
+     */
+    private long key(int cell) {
+        int cost = Math.min(this.g_cost[cell], this.rhs[cell]);
+        if(cost == INFINITE) {
+            return Long.MAX_VALUE;
+        }
+        return (long) cost + this.heuristic(cell) + this.keyModifier << 32 | cost;
+    }
+
+    /**
+     * @return octile distance between the start and the cell
+     */
+    private int heuristic(int cell) {
+        return Distance.octile(this.grid.x(this.start), this.grid.y(this.start), this.grid.x(cell), this.grid.y(cell));
+    }
+
+    /**
+     * @return {@code true} if the move from the cell in the given direction stays within the grid and both cells are walkable
+     */
+    private boolean isConnected(int x, int y, int d) {
+        int index = y * this.width + x;
+        return this.contains(x + Directions.DX[d], y + Directions.DY[d]) && !this.grid.isBarrier(index) && !this.grid.isBarrier(index + this.offsets[d]);
+    }
+
+    private boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.width && y < this.height;
+    }
+}
@@ -0,0 +1,51 @@
+package at.oliver.search;
+
+/**
+ * The eight moves from a cell to its neighbours as lookup tables: straight moves first, diagonal moves after.
+ * Indexed by direction, so expanding a cell needs neither allocations nor coordinate objects.
+ */
+final class Directions {
+    static final int COUNT = 8;
+
+    static final int[] DX = {1, 0, -1, 0, 1, -1, -1, 1};
+    static final int[] DY = {0, 1, 0, -1, 1, 1, -1, -1};
+    static final int[] COST = {Distance.STRAIGHT, Distance.STRAIGHT, Distance.STRAIGHT, Distance.STRAIGHT, Distance.DIAGONAL, Distance.DIAGONAL, Distance.DIAGONAL, Distance.DIAGONAL};
+
+    private static final int[] BY_DELTA = new int[9];  // direction by (dy + 1) * 3 + dx + 1
+
+    static {
+        for(int d = 0; d < COUNT; d++) {
+            BY_DELTA[(DY[d] + 1) * 3 + DX[d] + 1] = d;
+        }
+    }
+
+    private Directions() {
+    }
+
+    /**
+     * @param dx -1, 0 or 1
+     * @param dy -1, 0 or 1, not both 0
+     * @return direction of the move
+     */
+    static int of(int dx, int dy) {
+        return BY_DELTA[(dy + 1) * 3 + dx + 1];
+    }
+
+    static boolean isDiagonal(int d) {
+        return d >= 4;
+    }
+
+    /**
+     * Returns the difference of the cell indices for every direction.
+     *
+     * @param width width of the grid
+     * @return {@code DY[d] * width + DX[d]} for every direction d
+     */
+    static int[] offsets(int width) {
+        int[] offsets = new int[COUNT];
+        for(int d = 0; d < COUNT; d++) {
+            offsets[d] = DY[d] * width + DX[d];
+        }
+        return offsets;
+    }
+}
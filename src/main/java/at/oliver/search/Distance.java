@@ -0,0 +1,46 @@
+package at.oliver.search;
+
+/**
+ * Cost model of the grid: moving straight across a cell costs {@value STRAIGHT},
+ * moving crosswise costs {@value DIAGONAL}.
+ */
+public final class Distance {
+    public static final int STRAIGHT = 10;
+    public static final int DIAGONAL = 14;
+
+    private Distance() {
+    }
+
+    /**
+     * Calculates the distance between two points by only traveling either crosswise or straight across a cell
+     *
+     * @param x1 x-position of first point
+     * @param y1 y-position of first point
+     * @param x2 x-position of second point
+     * @param y2 y-position of second point
+     * @return distance between the two points
+     */
+    public static int octile(int x1, int y1, int x2, int y2) {
+        int diffX = Math.abs(x1 - x2);
+        int diffY = Math.abs(y1 - y2);
+
+        return diffX > diffY ? DIAGONAL * diffY + STRAIGHT * (diffX - diffY) : DIAGONAL * diffX + STRAIGHT * (diffY - diffX);
+    }
+
+    /**
+     * Calculates the length of the straight line between two points, in the same units as the moves: a cell
+     * across is {@value STRAIGHT}
+     *
+     * @param x1 x-position of first point
+     * @param y1 y-position of first point
+     * @param x2 x-position of second point
+     * @param y2 y-position of second point
+     * @return distance between the two points, rounded
+     */
+    public static int euclidean(int x1, int y1, int x2, int y2) {
+        long diffX = x1 - x2;
+        long diffY = y1 - y2;
+
+        return (int) Math.round(STRAIGHT * Math.sqrt(diffX * diffX + diffY * diffY));
+    }
+}
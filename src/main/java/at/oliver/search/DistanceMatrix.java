@@ -0,0 +1,289 @@
+package at.oliver.search;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Distances between all pairs of a set of points on the same {@code Grid}.
+ * <p>
+ * Instead of a search per pair, one Dijkstra per distinct point runs from it until every point it's responsible for
+ * has been reached, or no cell is left. Moves follow the rules of {@code AStar}, the distances equal its path costs:
+ * a move needs the cell moved to to be walkable, so between walkable points every path can be walked backwards and
+ * the distances are symmetric. A search from a walkable point only looks for the walkable points after it, and fills
+ * both directions; the later searches have less to find and stop earlier. A point on a barrier can be left but not
+ * reached, its search looks for all walkable points. The searches are split among the threads of a
+ * {@code ForkJoinPool}; every thread works with a {@code Wave} of its own, reused for later searches.
+ * <p>
+ * All costs are small, so the searches use Dial's buckets without any ordering within a bucket. The cells are indexed
+ * on a copy of the terrain with a border of barriers around it, which spares the bounds checks of the moves.
+ * <p>
+ * The grid is only read: it must not change while the matrix is computed, a {@link Grid#snapshot} can't.
+ *
+ * @see BatchSearch
+ */
+public class DistanceMatrix {
+    public static final int UNREACHABLE = -1;
+
+    private static final int MIN_SOURCES_PER_TASK = 1;  // a search is long enough to be a task of its own
+
+    private final Grid grid;
+    private final ForkJoinPool pool;
+    private final Queue<Wave> idleWaves = new ConcurrentLinkedQueue<>();  // created waves not in use
+
+    /**
+     * Runs the searches on the common {@code ForkJoinPool}, whose parallelism is one less than the amount of cores.
+     *
+     * @param grid grid to be searched
+     */
+    public DistanceMatrix(Grid grid) {
+        this(grid, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param grid grid to be searched
+     * @param pool pool running the searches, its parallelism sets the amount of {@code Wave}s
+     */
+    public DistanceMatrix(Grid grid, ForkJoinPool pool) {
+        this.grid = grid;
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the distances from every point to every other point and waits until all searches have finished.
+     *
+     * @param points cell indices of the points, duplicates allowed
+     * @return distances packed row by row: from point {@code i} to point {@code j} at {@code i * points.length + j},
+     * {@value UNREACHABLE} if there is no path
+     * @see Grid#index
+     */
+    public int[] compute(int[] points) {
+        for(int i = 0; i < points.length; i++) {
+            if(points[i] < 0 || points[i] >= this.grid.size()) {
+                throw new IllegalArgumentException("Error at DistanceMatrix: point " + i + " must lie within the grid");
+            }
+        }
+        if((long) points.length * points.length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Error at DistanceMatrix: too many points for one matrix");
+        }
+
+        Points targets = new Points(points, this.grid);
+        int cells = targets.cells.length;
+        int[] distances = new int[cells * cells];  // between the distinct cells, packed like the matrix
+        Arrays.fill(distances, UNREACHABLE);
+        int tasks = Math.max(1, this.pool.getParallelism() * 4);  // some spare tasks balance searches of different lengths
+        int threshold = Math.max(MIN_SOURCES_PER_TASK, cells / tasks);
+        this.pool.invoke(new Rows(targets, distances, 0, cells, threshold));
+
+        int n = points.length;
+        int[] matrix = new int[n * n];
+        for(int i = 0; i < n; i++) {
+            int row = targets.cellOfPoint[i] * cells;
+            for(int j = 0; j < n; j++) {
+                matrix[i * n + j] = distances[row + targets.cellOfPoint[j]];
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Takes an idle {@code Wave} or creates a new one, if all are in use.
+     */
+    private Wave acquire(int size) {
+        Wave wave = this.idleWaves.poll();
+        return wave == null || wave.distance.length != size ? new Wave(size) : wave;
+    }
+
+    /**
+     * Dijkstra search from one of the distinct cells, until all cells it's responsible for are closed: from a walkable
+     * cell the walkable cells after it, whose distances it fills in both directions; from a barrier all walkable cells.
+     *
+     * @param k         position of the cell among the distinct cells
+     * @param distances between the distinct cells, the entries of this search are filled
+     */
+    private static void search(Points points, int k, Wave wave, int[] distances) {
+        int count = points.cells.length;
+        int source = points.cells[k];
+        boolean symmetric = points.walkable[k];
+        distances[k * count + k] = 0;
+        int remaining = symmetric ? points.walkableAfter[k] : points.walkableCount;
+        if(remaining == 0) {
+            return;
+        }
+
+        boolean[] terrain = points.terrain;
+        int[] offsets = points.offsets;
+        int[] distance = wave.distance;
+        wave.clear();
+        distance[source] = 0;
+        wave.add(source, 0);
+        for(int cost = 0; wave.size > 0; cost++) {
+            int bucket = cost & Wave.MASK;
+            int[] cells = wave.buckets[bucket];  // no cell is added to the bucket while it's explored
+            for(int i = 0; i < wave.sizes[bucket]; i++) {
+                int current = cells[i];
+                if(distance[current] != cost) {  // outdated entry, reached more cheaply
+                    continue;
+                }
+                if(current != source && points.contains(current)) {  // other than the source, only walkable cells are reached
+                    int m = points.indexOf(current);
+                    if(m > k || !symmetric) {
+                        distances[k * count + m] = cost;
+                        if(symmetric) {
+                            distances[m * count + k] = cost;
+                        }
+                        if(--remaining == 0) {
+                            return;
+                        }
+                    }
+                }
+
+                for(int d = 0; d < Directions.COUNT; d++) {
+                    int neighbour = current + offsets[d];
+                    int newCost = cost + Directions.COST[d];
+                    if(terrain[neighbour] && newCost < distance[neighbour]) {
+                        distance[neighbour] = newCost;
+                        wave.add(neighbour, newCost);  // an outdated entry will be skipped
+                    }
+                }
+            }
+            wave.size -= wave.sizes[bucket];
+            wave.sizes[bucket] = 0;
+        }
+    }
+
+    /**
+     * The points, and their distinct cells sorted for lookups while searching. Cells are indexed on the terrain with
+     * the border, one cell wider on every side than the grid.
+     */
+    private static class Points {
+        private final boolean[] terrain;  // walkable cells, the border is a barrier
+        private final int[] offsets;  // index differences of the directions on the terrain
+        private final int[] cells;  // distinct, ascending
+        private final int[] cellOfPoint;  // position in cells by point
+        private final boolean[] walkable;  // by position in cells
+        private final int[] walkableAfter;  // amount of walkable cells after the position in cells
+        private final int walkableCount;
+        private final long[] marks;  // bit per cell of the terrain, set for the cells of points
+
+        Points(int[] points, Grid grid) {
+            int width = grid.getWidth() + 2;
+            this.terrain = new boolean[width * (grid.getHeight() + 2)];
+            for(int y = 0; y < grid.getHeight(); y++) {
+                for(int x = 0; x < grid.getWidth(); x++) {
+                    this.terrain[(y + 1) * width + x + 1] = !grid.isBarrier(grid.index(x, y));
+                }
+            }
+            this.offsets = Directions.offsets(width);
+
+            int[] bordered = new int[points.length];  // same order as on the grid
+            for(int i = 0; i < points.length; i++) {
+                bordered[i] = (grid.y(points[i]) + 1) * width + grid.x(points[i]) + 1;
+            }
+            this.cells = Arrays.stream(bordered).distinct().sorted().toArray();
+            this.cellOfPoint = new int[points.length];
+            for(int i = 0; i < points.length; i++) {
+                this.cellOfPoint[i] = Arrays.binarySearch(this.cells, bordered[i]);
+            }
+            this.walkable = new boolean[this.cells.length];
+            this.walkableAfter = new int[this.cells.length];
+            int count = 0;
+            for(int k = this.cells.length - 1; k >= 0; k--) {
+                this.walkableAfter[k] = count;
+                this.walkable[k] = this.terrain[this.cells[k]];
+                if(this.walkable[k]) {
+                    count++;
+                }
+            }
+            this.walkableCount = count;
+            this.marks = new long[(this.terrain.length + 63) >>> 6];
+            for(int cell : this.cells) {
+                this.marks[cell >>> 6] |= 1L << cell;
+            }
+        }
+
+        boolean contains(int cell) {
+            return (this.marks[cell >>> 6] & 1L << cell) != 0;
+        }
+
+        int indexOf(int cell) {
+            return Arrays.binarySearch(this.cells, cell);
+        }
+    }
+
+    /**
+     * Range of the distinct cells, split in halves until it's small enough to be searched by one thread.
+     */
+    private class Rows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;  // serializable as ForkJoinTask, never serialized
+
+        private final Points points;
+        private final int[] distances;
+        private final int from, to;  // range of the cells, to exclusive
+        private final int threshold;
+
+        Rows(Points points, int[] distances, int from, int to, int threshold) {
+            this.points = points;
+            this.distances = distances;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if(this.to - this.from > this.threshold) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new Rows(this.points, this.distances, this.from, middle, this.threshold),
+                        new Rows(this.points, this.distances, middle, this.to, this.threshold));
+                return;
+            }
+
+            Wave wave = DistanceMatrix.this.acquire(this.points.terrain.length);
+            try {
+                for(int k = this.from; k < this.to; k++) {
+                    search(this.points, k, wave, this.distances);
+                }
+            }
+            finally {
+                DistanceMatrix.this.idleWaves.add(wave);
+            }
+        }
+    }
+
+    /**
+     * State of one search: distances from the source and a ring of buckets by cost, as long as it takes to span the
+     * costs of one move. Like in {@code FlowField}, a cell is just added again at a lower cost, the entry whose cost
+     * doesn't match the distance anymore is skipped.
+     */
+    private static class Wave {
+        private static final int MASK = (Integer.highestOneBit(Distance.DIAGONAL) << 1) - 1;  // amount of buckets - 1
+        private static final int INFINITE = Integer.MAX_VALUE;
+
+        private final int[] distance;  // by cell of the terrain, INFINITE if not reached yet
+        private final int[][] buckets = new int[MASK + 1][64];
+        private final int[] sizes = new int[MASK + 1];
+        private int size;  // entries in all buckets
+
+        Wave(int size) {
+            this.distance = new int[size];
+        }
+
+        void clear() {
+            Arrays.fill(this.distance, INFINITE);
+            Arrays.fill(this.sizes, 0);
+            this.size = 0;
+        }
+
+        void add(int cell, int cost) {
+            int bucket = cost & MASK;
+            if(this.sizes[bucket] == this.buckets[bucket].length) {
+                this.buckets[bucket] = Arrays.copyOf(this.buckets[bucket], this.sizes[bucket] * 2);
+            }
+            this.buckets[bucket][this.sizes[bucket]++] = cell;
+            this.size++;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntHeap;
+import at.oliver.heap.IntMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * Distances and directions from every cell to one target, for many units sharing the same target.
+ * <p>
+ * One backward Dijkstra from the target fills the field: the distance of every cell and, in one byte, the direction
+ * of its next move. A path is then read in time proportional to its length by following the directions, without
+ * searching. Cells are connected like in {@code AStar}: a move needs the cell moved to be walkable, so a barrier
+ * start can be left. Paths have the same, optimal cost.
+ * <p>
+ * Terrain changes are collected as {@code Grid.Listener} and repaired on the next query: a new barrier resets the
+ * cells whose directions lead through it, which are then filled again from their neighbours; a removed barrier
+ * spreads its shorter distances. Only the affected cells are touched. The field takes 5 bytes per cell.
+ * Not thread-safe, the grid has to be changed on the querying thread.
+ *
+ * @see DStarLite
+ */
+public class FlowField implements Grid.Listener, AutoCloseable {
+    public static final int UNREACHABLE = -1;
+
+    private static final int INFINITE = Integer.MAX_VALUE;
+    private static final byte NO_DIRECTION = -1;  // target, or unreachable
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final int target;
+
+    private final int[] distance;  // to the target, INFINITE if unreachable
+    private final byte[] direction;  // of the next move towards the target
+    private final IntHeap open = new IntMinHeap(1024);  // seeds of a repair are not within the span of a BucketQueue
+    private int[] pending = new int[16];  // cells whose terrain changed since the last query, then cells to be reset
+    private int pendingCount;
+
+    /**
+     * Computes the field and registers it as {@code Grid.Listener}, unless the grid is read-only.
+     * {@link FlowField#close} unregisters it again.
+     *
+     * @param grid    grid to be searched
+     * @param targetX x-position of the target
+     * @param targetY y-position of the target
+     * @return field of the target
+     */
+    public static FlowField compute(Grid grid, int targetX, int targetY) {
+        FlowField field = new FlowField(grid, targetX, targetY);
+        if(!grid.isReadOnly()) {
+            grid.addListener(field);
+        }
+        return field;
+    }
+
+    private FlowField(Grid grid, int targetX, int targetY) {
+        if(!grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at FlowField: target must lie within the grid");
+        }
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.target = grid.index(targetX, targetY);
+
+        this.distance = new int[grid.size()];
+        this.direction = new byte[grid.size()];
+        Arrays.fill(this.distance, INFINITE);
+        Arrays.fill(this.direction, NO_DIRECTION);
+
+        this.distance[this.target] = 0;
+        IntHeap sweep = OpenLists.create(grid.size(), Distance.DIAGONAL);  // all keys lie within one move of the lowest
+        sweep.add(this.target, key(0));
+        this.spread(sweep);
+    }
+
+    /**
+     * Collects the changed cell, the field is repaired on the next query.
+     */
+    @Override
+    public void terrainChanged(int x, int y) {
+        this.addPending(this.grid.index(x, y));
+    }
+
+    /**
+     * Stops following the changes of the grid, later changes aren't repaired anymore.
+     */
+    @Override
+    public void close() {
+        this.grid.removeListener(this);
+    }
+
+    public int getTargetX() {
+        return this.grid.x(this.target);
+    }
+
+    public int getTargetY() {
+        return this.grid.y(this.target);
+    }
+
+    /**
+     * @return distance from the cell to the target, {@value UNREACHABLE} if there is no path
+     */
+    public int getDistance(int x, int y) {
+        this.update();
+        int cost = this.distance[this.grid.index(x, y)];
+        return cost == INFINITE ? UNREACHABLE : cost;
+    }
+
+    /**
+     * @return index of the cell to move to from the given one, -1 at the target or if there is no path
+     */
+    public int next(int index) {
+        this.update();
+        return this.follow(index);
+    }
+
+    /**
+     * Follows the directions from the start to the target. The statistics count the work of repairing the field.
+     *
+     * @param startX x-position of the start
+     * @param startY y-position of the start
+     * @return path from the start to the target
+     */
+    public SearchResult findPath(int startX, int startY) {
+        if(!this.grid.contains(startX, startY)) {
+            throw new IllegalArgumentException("Error at FlowField: start must lie within the grid");
+        }
+        long begin = System.nanoTime();
+        SearchStats stats = this.update();
+
+        int start = this.grid.index(startX, startY);
+        SearchResult result;
+        if(this.distance[start] == INFINITE) {
+            result = SearchResult.noPath(stats);
+        }
+        else {
+            int[] path = new int[16];
+            int length = 0;
+            for(int current = start; current != -1; current = this.follow(current)) {
+                if(length == path.length) {
+                    path = Arrays.copyOf(path, path.length * 2);
+                }
+                path[length++] = current;
+            }
+            result = new SearchResult(Arrays.copyOf(path, length), this.distance[start], stats);
+        }
+        stats.searchNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    /**
+     * @return index of the cell the direction of the given one leads to, -1 if it has none
+     */
+    private int follow(int index) {
+        return this.direction[index] == NO_DIRECTION ? -1 : index + this.offsets[this.direction[index]];
+    }
+
+    /**
+     * Repairs the field after terrain changes.
+     *
+     * @return statistics of the repair
+     */
+    private SearchStats update() {
+        SearchStats stats = new SearchStats();
+        if(this.pendingCount == 0) {
+            return stats;
+        }
+        int changedCount = this.pendingCount;
+        int[] changed = Arrays.copyOf(this.pending, changedCount);
+        this.pendingCount = 0;
+
+        // cells whose directions lead into a new barrier lose their distance, like all cells leading to them
+        for(int cell : changed) {
+            if(this.grid.isBarrier(cell) && this.distance[cell] != INFINITE) {
+                this.resetUpstream(cell);
+            }
+        }
+        // the reset cells take the best distance offered by the cells around them
+        for(int i = 0; i < this.pendingCount; i++) {
+            this.seed(this.pending[i]);
+        }
+        this.pendingCount = 0;
+        // cells which became walkable lead to their neighbours now
+        for(int cell : changed) {
+            if(!this.grid.isBarrier(cell) && this.distance[cell] != INFINITE) {
+                this.open.add(cell, key(this.distance[cell]));
+            }
+        }
+        stats.openedNodes = this.open.size();
+        stats.expandedNodes = this.spread(this.open);
+        return stats;
+    }
+
+    /**
+     * Resets the distances of all cells whose directions lead through the given cell, and collects them as pending.
+     * The cell itself keeps its distance, leaving it doesn't depend on its terrain.
+     */
+    private void resetUpstream(int cell) {
+        int first = this.pendingCount;
+        this.addPending(cell);
+        for(int i = first; i < this.pendingCount; i++) {
+            int current = this.pending[i];
+            int currentY = current / this.width;
+            int currentX = current - currentY * this.width;
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int x = currentX + Directions.DX[d];
+                int y = currentY + Directions.DY[d];
+                if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                    continue;
+                }
+                int neighbour = current + this.offsets[d];
+                if(this.direction[neighbour] != NO_DIRECTION && neighbour + this.offsets[this.direction[neighbour]] == current) {
+                    this.distance[neighbour] = INFINITE;
+                    this.direction[neighbour] = NO_DIRECTION;
+                    this.addPending(neighbour);
+                }
+            }
+        }
+        // the barrier itself was only collected to find the cells leading to it
+        this.pending[first] = this.pending[--this.pendingCount];
+    }
+
+    /**
+     * Gives a reset cell the lowest distance over its walkable neighbours and puts it on the open list.
+     */
+    private void seed(int cell) {
+        if(cell == this.target) {
+            return;
+        }
+        int cellY = cell / this.width;
+        int cellX = cell - cellY * this.width;
+        for(int d = 0; d < Directions.COUNT; d++) {
+            int x = cellX + Directions.DX[d];
+            int y = cellY + Directions.DY[d];
+            if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                continue;
+            }
+            int neighbour = cell + this.offsets[d];
+            if(!this.grid.isBarrier(neighbour) && this.distance[neighbour] != INFINITE && this.distance[neighbour] + Directions.COST[d] < this.distance[cell]) {
+                this.distance[cell] = this.distance[neighbour] + Directions.COST[d];
+                this.direction[cell] = (byte) d;
+            }
+        }
+        if(this.distance[cell] != INFINITE) {
+            this.open.add(cell, key(this.distance[cell]));
+        }
+    }
+
+    /**
+     * Dijkstra backwards: lowers the distances of the neighbours of the cells on the given open list, as long as
+     * shorter ones are found.
+     *
+     * @return amount of cells explored
+     */
+    private int spread(IntHeap open) {
+        int explored = 0;
+        while(!open.isEmpty()) {
+            int cost = (int) (open.firstKey() >>> 32);
+            int current = open.removeFirst();
+            if(cost != this.distance[current] || this.grid.isBarrier(current)) {  // outdated entry, or no cell can move here
+                continue;
+            }
+            explored++;
+
+            int currentY = current / this.width;
+            int currentX = current - currentY * this.width;
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int x = currentX + Directions.DX[d];
+                int y = currentY + Directions.DY[d];
+                if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                    continue;
+                }
+                int neighbour = current + this.offsets[d];
+                int newCost = cost + Directions.COST[d];
+                if(newCost < this.distance[neighbour]) {
+                    this.distance[neighbour] = newCost;
+                    this.direction[neighbour] = (byte) (d ^ 2);  // opposite direction, towards the current cell
+                    open.add(neighbour, key(newCost));
+                }
+            }
+        }
+        return explored;
+    }
+
+    /**
+     * Keys hold the distance in the upper 32 bits, like the f_cost of the other searches.
+     */
+    private static long key(int distance) {
+        return (long) distance << 32;
+    }
+
+    private void addPending(int cell) {
+        if(this.pendingCount == this.pending.length) {
+            this.pending = Arrays.copyOf(this.pending, this.pendingCount * 2);
+        }
+        this.pending[this.pendingCount++] = cell;
+    }
+}
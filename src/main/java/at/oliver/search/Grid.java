@@ -0,0 +1,242 @@
+package at.oliver.search;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Traversability of a rectangular grid, the input of every search in this package.
+ * Cells are addressed either by their position (x, y) or by their index {@code y * width + x};
+ * the terrain of all cells is stored in one flat {@code ByteBuffer}, one byte per cell, which can be a file
+ * mapped into memory by {@code MapFile}.
+ * <p>
+ * Registered {@code Listener}s are notified about every change of the terrain, so precomputed data can be updated;
+ * the {@link Grid#getVersion version} tells whether the terrain has changed since a result was computed.
+ * A {@link Grid#snapshot} or a grid read from a {@code MapFile} never changes and can be shared by searches running
+ * on different threads.
+ */
+public class Grid {
+    public static final byte WALKABLE = 0;
+    public static final byte BARRIER = 1;
+
+    static final int MAX_CELLS = Integer.MAX_VALUE - 8;  // largest array the VM can allocate
+
+    private final int width, height;
+    private final ByteBuffer terrain;  // only accessed by index, position and limit are never changed
+    private final boolean readOnly;
+    private volatile long version;  // changes of the terrain so far
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile BarrierBitmap rowBitmap, columnBitmap;  // created when first used, then kept up to date
+
+    public Grid(int width, int height) {
+        this(width, height, null, false);
+    }
+
+    /**
+     * Creates a grid on the given terrain without copying it.
+     *
+     * @param terrain  one byte per cell, {@code null} for an empty terrain
+     * @param readOnly {@code true} if the terrain can't be changed
+     */
+    Grid(int width, int height, ByteBuffer terrain, boolean readOnly) {
+        if(width < 1 || height < 1) {
+            throw new IllegalArgumentException("Error at Grid: width and height must be positive");
+        }
+        if((long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("Error at Grid: at most " + MAX_CELLS + " cells are supported");
+        }
+        if(terrain != null && terrain.capacity() != width * height) {
+            throw new IllegalArgumentException("Error at Grid: terrain must have one byte per cell");
+        }
+        this.width = width;
+        this.height = height;
+        this.terrain = terrain != null ? terrain : ByteBuffer.allocate(width * height);
+        this.readOnly = readOnly;
+    }
+
+    private Grid(Grid grid) {
+        this.width = grid.width;
+        this.height = grid.height;
+        this.terrain = ByteBuffer.allocate(grid.size()).put(grid.terrain.duplicate().clear());
+        this.readOnly = true;
+        this.version = grid.version;
+    }
+
+    /**
+     * Copies the current terrain into a grid, which can't be changed.
+     *
+     * @return read-only copy of the grid, the grid itself if it's already read-only
+     */
+    public Grid snapshot() {
+        return this.readOnly ? this : new Grid(this);
+    }
+
+    public boolean isReadOnly() {
+        return this.readOnly;
+    }
+
+    /**
+     * @return amount of changes of the terrain so far, equal versions of a grid have equal terrain
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return amount of cells
+     */
+    public int size() {
+        return this.terrain.capacity();
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.width && y < this.height;
+    }
+
+    public int index(int x, int y) {
+        return y * this.width + x;
+    }
+
+    public int x(int index) {
+        return index % this.width;
+    }
+
+    public int y(int index) {
+        return index / this.width;
+    }
+
+    /**
+     * @return read-only view of the terrain of all cells, from the first to the last index
+     */
+    ByteBuffer terrain() {
+        return this.terrain.asReadOnlyBuffer().clear();
+    }
+
+    public byte getTerrain(int index) {
+        return this.terrain.get(index);
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the grid is read-only
+     */
+    public void setTerrain(int index, byte terrain) {
+        if(this.readOnly) {
+            throw new UnsupportedOperationException("Error at Grid: a read-only grid can't be changed");
+        }
+        if(this.terrain.get(index) == terrain) {
+            return;
+        }
+        this.terrain.put(index, terrain);
+        this.version++;  // only changed by the thread editing the grid
+        this.updateBitmaps(index);
+
+        for(Listener listener : this.listeners) {
+            listener.terrainChanged(this.x(index), this.y(index));
+        }
+    }
+
+    /**
+     * Returns the barriers as bitmap, one bit per cell packed row by row. Created on the first call, afterwards
+     * updated with every change of the terrain.
+     *
+     * @return bitmap of the rows
+     */
+    public BarrierBitmap getBarrierBitmap() {
+        BarrierBitmap bitmap = this.rowBitmap;
+        if(bitmap == null) {
+            synchronized(this) {
+                if(this.rowBitmap == null) {
+                    this.rowBitmap = new BarrierBitmap(this, false);
+                }
+                bitmap = this.rowBitmap;
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Returns the barriers as bitmap of the columns: x and y are swapped, so a column is scanned like a row.
+     *
+     * @return transposed bitmap
+     * @see Grid#getBarrierBitmap
+     */
+    BarrierBitmap getColumnBitmap() {
+        BarrierBitmap bitmap = this.columnBitmap;
+        if(bitmap == null) {
+            synchronized(this) {
+                if(this.columnBitmap == null) {
+                    this.columnBitmap = new BarrierBitmap(this, true);
+                }
+                bitmap = this.columnBitmap;
+            }
+        }
+        return bitmap;
+    }
+
+    private void updateBitmaps(int index) {
+        boolean barrier = this.isBarrier(index);
+        synchronized(this) {  // a bitmap being created reads the terrain already changed
+            if(this.rowBitmap != null) {
+                this.rowBitmap.set(this.x(index), this.y(index), barrier);
+            }
+            if(this.columnBitmap != null) {
+                this.columnBitmap.set(this.y(index), this.x(index), barrier);
+            }
+        }
+    }
+
+    public boolean isBarrier(int index) {
+        return this.terrain.get(index) == BARRIER;
+    }
+
+    public boolean isBarrier(int x, int y) {
+        return this.isBarrier(this.index(x, y));
+    }
+
+    public void setBarrier(int x, int y, boolean barrier) {
+        this.setTerrain(this.index(x, y), barrier ? BARRIER : WALKABLE);
+    }
+
+    /**
+     * Tests whether the straight line between the centers of two cells only crosses walkable cells. Cells the line
+     * merely touches at a corner don't block it, just like a diagonal move may pass a barrier; the first cell isn't
+     * tested, like the start of a search. The cells a line crosses in one row are tested at once on the
+     * {@link Grid#getBarrierBitmap bitmap}, lines steeper than 45 degrees use a bitmap of the columns.
+     *
+     * @param fromX x-position of the first cell
+     * @param fromY y-position of the first cell
+     * @param toX   x-position of the last cell
+     * @param toY   y-position of the last cell
+     * @return {@code true} if no barrier lies in between
+     */
+    public boolean hasLineOfSight(int fromX, int fromY, int toX, int toY) {
+        if(Math.abs(toX - fromX) >= Math.abs(toY - fromY)) {
+            return this.getBarrierBitmap().isLineFree(fromX, fromY, toX, toY);
+        }
+        return this.getColumnBitmap().isLineFree(fromY, fromX, toY, toX);  // a steep line is flat in the columns
+    }
+
+    public void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Gets notified when the terrain of a cell has changed.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void terrainChanged(int x, int y);
+    }
+}
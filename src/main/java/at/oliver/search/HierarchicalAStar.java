@@ -0,0 +1,707 @@
+package at.oliver.search;
+
+import at.oliver.heap.BucketQueue;
+import at.oliver.heap.IntHeap;
+import at.oliver.heap.IntMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * HPA*: hierarchical path-finding on an abstract graph. The grid is divided into square clusters, the cells where
+ * two clusters can be crossed (entrances) become the nodes of the graph. Nodes of one cluster are connected by their
+ * distance within the cluster, nodes across a border by a single move. A search runs on this graph first and
+ * the found path is refined cluster by cluster afterwards, so long paths only touch a small part of the grid.
+ * <p>
+ * Paths are near-optimal: they only leave a cluster through its entrances, runs of crossable border cells are
+ * represented by one or two of them. The abstract graph is cached; changed terrain only marks the clusters around
+ * the changed cell, which are rebuilt before the next search. The cells of the way between two entrances are
+ * cached as well once a path has been refined through them, so only the ways from the start and to the target are
+ * searched by every query. The abstract search itself isn't bounded, though: across a 4000x4000 grid it expands
+ * thousands of nodes and takes tens of milliseconds, queries in under a millisecond would need another level of
+ * clusters on top of the abstract graph. Not thread-safe, one search at a time.
+ *
+ * @see AStar
+ */
+public class HierarchicalAStar implements PathFinder, Grid.Listener, AutoCloseable {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int MAX_RUN_FOR_ONE_ENTRANCE = 6;  // longer runs of border cells get an entrance at both ends
+    private static final int INFINITE = Integer.MAX_VALUE;
+    private static final int NO_CELL = -1;
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final int clusterSize, clustersX, clustersY;
+    private final Cluster[] clusters;
+    private final int[] dirty;  // indices of the clusters to be rebuilt
+    private final boolean[] isDirty;
+    private int dirtyCount;
+
+    private int[] nodeCells = new int[1024];  // cell of every node, by id
+    private int nodeCount;
+
+    private final Transitions transitions = new Transitions();
+
+    // search within one cluster, indexed by local cell index
+    private final int[] localCost, localExplorer, localStamp;
+    private final IntHeap localOpen = new BucketQueue(2 * Distance.DIAGONAL);
+    private int localEpoch;
+
+    // search on the abstract graph, indexed by node id
+    private int[] abstractCost, abstractExplorer, abstractStamp;
+    private final IntHeap abstractOpen = new IntMinHeap(1024);
+    private int abstractEpoch;
+
+    // cells the start is left through: the start itself, or its walkable neighbours if it's a barrier
+    private final int[] seedCells = new int[Directions.COUNT], seedCosts = new int[Directions.COUNT];
+    private final int[] seedDirectCosts = new int[Directions.COUNT];  // to the target within the seed's cluster
+    private final int[][] seedEntranceCosts = new int[Directions.COUNT][];
+    private final Cluster[] seedClusters = new Cluster[Directions.COUNT];
+    private int seedCount;
+
+    public static HierarchicalAStar create(Grid grid) {
+        return create(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Builds the abstract graph of the grid and registers it as {@code Grid.Listener}, unless the grid is read-only.
+     * {@link HierarchicalAStar#close} unregisters it again.
+     *
+     * @param grid        grid to be searched
+     * @param clusterSize width and height of a cluster in cells, at least 2
+     * @return HPA* on the grid
+     */
+    public static HierarchicalAStar create(Grid grid, int clusterSize) {
+        HierarchicalAStar search = new HierarchicalAStar(grid, clusterSize);
+        if(!grid.isReadOnly()) {
+            grid.addListener(search);
+        }
+        return search;
+    }
+
+    private HierarchicalAStar(Grid grid, int clusterSize) {
+        if(clusterSize < 2) {
+            throw new IllegalArgumentException("Error at HierarchicalAStar: clusterSize must be at least 2");
+        }
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.clusterSize = clusterSize;
+        this.clustersX = (this.width + clusterSize - 1) / clusterSize;
+        this.clustersY = (this.height + clusterSize - 1) / clusterSize;
+
+        this.clusters = new Cluster[this.clustersX * this.clustersY];
+        this.dirty = new int[this.clusters.length];
+        this.isDirty = new boolean[this.clusters.length];
+        for(int ky = 0; ky < this.clustersY; ky++) {
+            for(int kx = 0; kx < this.clustersX; kx++) {
+                int x0 = kx * clusterSize;
+                int y0 = ky * clusterSize;
+                this.clusters[ky * this.clustersX + kx] = new Cluster(kx, ky, x0, y0, Math.min(clusterSize, this.width - x0), Math.min(clusterSize, this.height - y0));
+                this.markDirty(ky * this.clustersX + kx);
+            }
+        }
+
+        this.localCost = new int[clusterSize * clusterSize];
+        this.localExplorer = new int[clusterSize * clusterSize];
+        this.localStamp = new int[clusterSize * clusterSize];
+
+        this.rebuild();
+    }
+
+    /**
+     * Marks the clusters, whose entrances or distances might have changed, to be rebuilt before the next search.
+     */
+    @Override
+    public void terrainChanged(int x, int y) {
+        for(int dy = -1; dy <= 1; dy++) {
+            for(int dx = -1; dx <= 1; dx++) {  // entrances depend on the cells next to the border
+                if(this.grid.contains(x + dx, y + dy)) {
+                    this.markDirty(this.clusterOf(x + dx, y + dy));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops following the changes of the grid, the abstract graph isn't updated anymore.
+     */
+    @Override
+    public void close() {
+        this.grid.removeListener(this);
+    }
+
+    /**
+     * @return amount of nodes of the abstract graph
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for(Cluster cluster : this.clusters) {
+            count += cluster.cells.length;
+        }
+        return count;
+    }
+
+    @Override
+    public SearchResult findPath(int startX, int startY, int targetX, int targetY) {
+        if(!this.grid.contains(startX, startY) || !this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at HierarchicalAStar: start and target must lie within the grid");
+        }
+        long begin = System.nanoTime();
+        this.rebuild();
+        SearchStats stats = new SearchStats();
+
+        int start = this.grid.index(startX, startY);
+        int target = this.grid.index(targetX, targetY);
+        SearchResult result;
+        if(start == target) {
+            result = new SearchResult(new int[]{start}, 0, stats);
+        }
+        else if(this.grid.isBarrier(target)) {  // a start on a barrier is left like in AStar
+            result = SearchResult.noPath(stats);
+        }
+        else {
+            int[] nodes = this.searchAbstractGraph(start, target, stats);
+            result = nodes == null ? SearchResult.noPath(stats) : new SearchResult(this.refine(nodes), this.abstractCost[this.nodeCount + 1], stats);
+        }
+
+        stats.searchNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    /**
+     * A* on the abstract graph, start and target are inserted as temporary nodes. The start is connected to the
+     * abstract graph through its seeds: itself, or its walkable neighbours if it's a barrier, which might lie in
+     * other clusters.
+     *
+     * @return cells of the abstract path from start to target, {@code null} if no path exists
+     */
+    private int[] searchAbstractGraph(int start, int target, SearchStats stats) {
+        Cluster targetCluster = this.clusters[this.clusterOf(this.grid.x(target), this.grid.y(target))];
+        int startId = this.nodeCount;
+        int targetId = this.nodeCount + 1;
+        int firstSeedId = this.nodeCount + 2;
+        int targetX = this.grid.x(target);
+        int targetY = this.grid.y(target);
+
+        // connecting target and seeds to the entrances of their clusters
+        this.searchCluster(targetCluster, target, NO_CELL);
+        int[] targetCosts = this.getLocalCosts(targetCluster, targetCluster.cells);
+        this.findSeeds(start);
+        for(int k = 0; k < this.seedCount; k++) {
+            Cluster cluster = this.seedClusters[k];
+            this.searchCluster(cluster, this.seedCells[k], NO_CELL);
+            this.seedEntranceCosts[k] = this.getLocalCosts(cluster, cluster.cells);
+            this.seedDirectCosts[k] = cluster == targetCluster ? this.getLocalCost(cluster, target) : INFINITE;
+        }
+
+        if(this.abstractStamp == null || this.abstractStamp.length < this.nodeCount + 2 + Directions.COUNT) {
+            int capacity = this.nodeCells.length + 2 + Directions.COUNT;
+            this.abstractCost = new int[capacity];
+            this.abstractExplorer = new int[capacity];
+            this.abstractStamp = new int[capacity];
+            this.abstractEpoch = 0;
+        }
+        this.abstractEpoch += 2;  // epoch: opened, epoch + 1: closed
+        if(this.abstractEpoch < 0) {
+            Arrays.fill(this.abstractStamp, 0);
+            this.abstractEpoch = 2;
+        }
+        this.abstractOpen.clear();
+        this.relax(startId, start, 0, -1, targetX, targetY, stats);
+
+        while(!this.abstractOpen.isEmpty()) {
+            int id = this.abstractOpen.removeFirst();
+            if(this.abstractStamp[id] != this.abstractEpoch) {  // outdated entry
+                continue;
+            }
+            if(id == targetId) {
+                return this.getAbstractPath(targetId, start, target);
+            }
+            this.abstractStamp[id] = this.abstractEpoch + 1;
+            stats.expandedNodes++;
+            int cost = this.abstractCost[id];
+
+            if(id == startId) {
+                for(int k = 0; k < this.seedCount; k++) {
+                    this.relax(firstSeedId + k, this.seedCells[k], cost + this.seedCosts[k], id, targetX, targetY, stats);
+                }
+                continue;
+            }
+            if(id >= firstSeedId) {
+                int k = id - firstSeedId;
+                Cluster cluster = this.seedClusters[k];
+                int[] entranceCosts = this.seedEntranceCosts[k];
+                for(int j = 0; j < cluster.cells.length; j++) {
+                    if(entranceCosts[j] != INFINITE) {
+                        this.relax(cluster.firstId + j, cluster.cells[j], cost + entranceCosts[j], id, targetX, targetY, stats);
+                    }
+                }
+                if(this.seedDirectCosts[k] != INFINITE) {
+                    this.relax(targetId, target, cost + this.seedDirectCosts[k], id, targetX, targetY, stats);
+                }
+                continue;
+            }
+
+            int cell = this.nodeCells[id];
+            Cluster cluster = this.clusters[this.clusterOf(this.grid.x(cell), this.grid.y(cell))];
+            int i = id - cluster.firstId;
+            int count = cluster.cells.length;
+            for(int j = 0; j < count; j++) {  // within the cluster
+                int distance = cluster.distances[i * count + j];
+                if(j != i && distance != INFINITE) {
+                    this.relax(cluster.firstId + j, cluster.cells[j], cost + distance, id, targetX, targetY, stats);
+                }
+            }
+            for(int e = 0; e < cluster.interCells[i].length; e++) {  // across the border
+                int other = cluster.interCells[i][e];
+                Cluster otherCluster = this.clusters[this.clusterOf(this.grid.x(other), this.grid.y(other))];
+                int j = Arrays.binarySearch(otherCluster.cells, other);
+                this.relax(otherCluster.firstId + j, other, cost + cluster.interCosts[i][e], id, targetX, targetY, stats);
+            }
+            if(cluster == targetCluster && targetCosts[i] != INFINITE) {
+                this.relax(targetId, target, cost + targetCosts[i], id, targetX, targetY, stats);
+            }
+        }
+        return null;
+    }
+
+    private void relax(int id, int cell, int cost, int explorer, int targetX, int targetY, SearchStats stats) {
+        boolean opened = this.abstractStamp[id] == this.abstractEpoch;
+        if(this.abstractStamp[id] == this.abstractEpoch + 1 || opened && cost >= this.abstractCost[id]) {  // closed or not shorter
+            return;
+        }
+        if(!opened) {
+            stats.openedNodes++;
+        }
+        else {
+            stats.decreasedKeys++;
+        }
+        this.abstractStamp[id] = this.abstractEpoch;
+        this.abstractCost[id] = cost;
+        this.abstractExplorer[id] = explorer;
+        int h_cost = Distance.octile(this.grid.x(cell), this.grid.y(cell), targetX, targetY);
+        this.abstractOpen.add(id, (long) (cost + h_cost) << 32 | h_cost);
+        if(this.abstractOpen.size() > stats.peakOpenSize) {
+            stats.peakOpenSize = this.abstractOpen.size();
+        }
+    }
+
+    private int[] getAbstractPath(int targetId, int start, int target) {
+        int length = 0;
+        for(int id = targetId; id != -1; id = this.abstractExplorer[id]) {
+            length++;
+        }
+        int[] cells = new int[length];
+        for(int id = targetId; id != -1; id = this.abstractExplorer[id]) {
+            cells[--length] = id == targetId ? target : id == this.nodeCount ? start : id > targetId ? this.seedCells[id - targetId - 1] : this.nodeCells[id];
+        }
+        return cells;
+    }
+
+    /**
+     * Finds the seeds of the start: the start itself if it's walkable. A start on a barrier is left with a single
+     * move, like in {@code AStar}, so its seeds are its walkable neighbours at the cost of the move.
+     */
+    private void findSeeds(int start) {
+        int startX = this.grid.x(start);
+        int startY = this.grid.y(start);
+        this.seedCount = 0;
+        if(!this.grid.isBarrier(start)) {
+            this.addSeed(start, startX, startY, 0);
+            return;
+        }
+        for(int d = 0; d < Directions.COUNT; d++) {
+            int x = startX + Directions.DX[d];
+            int y = startY + Directions.DY[d];
+            if(this.isWalkable(x, y)) {
+                this.addSeed(start + this.offsets[d], x, y, Directions.COST[d]);
+            }
+        }
+    }
+
+    private void addSeed(int cell, int x, int y, int cost) {
+        this.seedCells[this.seedCount] = cell;
+        this.seedCosts[this.seedCount] = cost;
+        this.seedClusters[this.seedCount++] = this.clusters[this.clusterOf(x, y)];
+    }
+
+    /**
+     * Replaces every edge of the abstract path within a cluster by the cells between.
+     *
+     * @param nodes cells of the abstract path
+     * @return cell indices from start to target
+     */
+    private int[] refine(int[] nodes) {
+        int[] path = new int[64];
+        int length = 0;
+        path[length++] = nodes[0];
+
+        for(int n = 1; n < nodes.length; n++) {
+            int from = nodes[n - 1];
+            int to = nodes[n];
+            int cluster = this.clusterOf(this.grid.x(from), this.grid.y(from));
+            if(from == to) {  // start or target on an entrance
+                continue;
+            }
+            if(cluster != this.clusterOf(this.grid.x(to), this.grid.y(to))) {  // single move across the border
+                if(length == path.length) {
+                    path = Arrays.copyOf(path, length * 2);
+                }
+                path[length++] = to;
+                continue;
+            }
+
+            int[] segment = this.getSegment(this.clusters[cluster], from, to);
+            if(length + segment.length > path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, length + segment.length));
+            }
+            System.arraycopy(segment, 0, path, length, segment.length);
+            length += segment.length;
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    /**
+     * Finds the shortest way between two cells of a cluster. Ways between two entrances are cached until the cluster
+     * is rebuilt, only those from the start or to the target are searched by every query.
+     *
+     * @return cells of the way without the first one
+     */
+    private int[] getSegment(Cluster cluster, int from, int to) {
+        int i = Arrays.binarySearch(cluster.cells, from);
+        int j = Arrays.binarySearch(cluster.cells, to);
+        int pair = i >= 0 && j >= 0 ? i * cluster.cells.length + j : NO_CELL;
+        if(pair != NO_CELL && cluster.segments[pair] != null) {
+            return cluster.segments[pair];
+        }
+
+        this.searchCluster(cluster, from, to);
+        int length = 0;
+        for(int cell = to; cell != from; cell = this.localExplorer[this.localIndex(cluster, cell)]) {
+            length++;
+        }
+        int[] segment = new int[length];
+        for(int cell = to; cell != from; cell = this.localExplorer[this.localIndex(cluster, cell)]) {
+            segment[--length] = cell;
+        }
+        if(pair != NO_CELL) {
+            cluster.segments[pair] = segment;
+        }
+        return segment;
+    }
+
+    /**
+     * Rebuilds the entrances, edges and distances of all dirty clusters.
+     */
+    private void rebuild() {
+        for(int d = 0; d < this.dirtyCount; d++) {
+            Cluster cluster = this.clusters[this.dirty[d]];
+            this.isDirty[this.dirty[d]] = false;
+            this.rebuildEntrances(cluster);
+        }
+        for(int d = 0; d < this.dirtyCount; d++) {  // entrances of all clusters are known now
+            this.rebuildDistances(this.clusters[this.dirty[d]]);
+        }
+        this.dirtyCount = 0;
+    }
+
+    private void rebuildEntrances(Cluster cluster) {
+        int kx = cluster.kx;
+        int ky = cluster.ky;
+        Transitions transitions = this.transitions;
+        transitions.clear(cluster);
+        this.addVerticalTransitions(kx, ky, transitions);  // east border
+        this.addVerticalTransitions(kx - 1, ky, transitions);  // west border
+        this.addVerticalTransitions(kx - 1, ky - 1, transitions);  // diagonal moves from the north-west
+        this.addVerticalTransitions(kx - 1, ky + 1, transitions);  // diagonal moves from the south-west
+        this.addHorizontalTransitions(kx, ky, transitions);  // south border
+        this.addHorizontalTransitions(kx, ky - 1, transitions);  // north border
+
+        // entrances: distinct cells of the cluster, sorted
+        int[] cells = Arrays.copyOf(transitions.from, transitions.size);
+        Arrays.sort(cells);
+        int count = 0;
+        for(int i = 0; i < cells.length; i++) {
+            if(i == 0 || cells[i] != cells[i - 1]) {
+                cells[count++] = cells[i];
+            }
+        }
+        cluster.cells = Arrays.copyOf(cells, count);
+
+        cluster.interCells = new int[count][];
+        cluster.interCosts = new int[count][];
+        for(int i = 0; i < count; i++) {
+            int edges = 0;
+            for(int t = 0; t < transitions.size; t++) {
+                if(transitions.from[t] == cluster.cells[i]) {
+                    edges++;
+                }
+            }
+            cluster.interCells[i] = new int[edges];
+            cluster.interCosts[i] = new int[edges];
+            edges = 0;
+            for(int t = 0; t < transitions.size; t++) {
+                if(transitions.from[t] == cluster.cells[i]) {
+                    cluster.interCells[i][edges] = transitions.to[t];
+                    cluster.interCosts[i][edges++] = transitions.cost[t];
+                }
+            }
+        }
+
+        if(count > cluster.capacity) {  // new range of node ids
+            cluster.firstId = this.nodeCount;
+            cluster.capacity = count;
+            this.nodeCount += count;
+            if(this.nodeCount > this.nodeCells.length) {
+                this.nodeCells = Arrays.copyOf(this.nodeCells, Math.max(this.nodeCount, this.nodeCells.length * 2));
+            }
+        }
+        System.arraycopy(cluster.cells, 0, this.nodeCells, cluster.firstId, count);
+    }
+
+    private void rebuildDistances(Cluster cluster) {
+        int count = cluster.cells.length;
+        cluster.distances = new int[count * count];
+        cluster.segments = new int[count * count][];
+        for(int i = 0; i < count; i++) {
+            this.searchCluster(cluster, cluster.cells[i], NO_CELL);
+            for(int j = 0; j < count; j++) {
+                cluster.distances[i * count + j] = this.getLocalCost(cluster, cluster.cells[j]);
+            }
+        }
+    }
+
+    /**
+     * Adds the transitions across the vertical border east of cluster (kx, ky), which touch the cluster of the transitions.
+     */
+    private void addVerticalTransitions(int kx, int ky, Transitions transitions) {
+        if(kx < 0 || ky < 0 || kx >= this.clustersX - 1 || ky >= this.clustersY) {
+            return;
+        }
+        int x0 = (kx + 1) * this.clusterSize - 1;
+        int x1 = x0 + 1;
+        int first = ky * this.clusterSize;
+        int last = Math.min(first + this.clusterSize, this.height) - 1;
+
+        int runStart = NO_CELL;
+        for(int y = first; y <= last + 1; y++) {
+            boolean crossable = y <= last && this.isWalkable(x0, y) && this.isWalkable(x1, y);
+            if(crossable && runStart == NO_CELL) {
+                runStart = y;
+            }
+            else if(!crossable && runStart != NO_CELL) {
+                int runEnd = y - 1;
+                if(runEnd - runStart + 1 < MAX_RUN_FOR_ONE_ENTRANCE) {
+                    int middle = (runStart + runEnd) / 2;
+                    transitions.add(this.grid.index(x0, middle), this.grid.index(x1, middle), Distance.STRAIGHT);
+                }
+                else {
+                    transitions.add(this.grid.index(x0, runStart), this.grid.index(x1, runStart), Distance.STRAIGHT);
+                    transitions.add(this.grid.index(x0, runEnd), this.grid.index(x1, runEnd), Distance.STRAIGHT);
+                }
+                runStart = NO_CELL;
+            }
+
+            // diagonal moves past two barriers aren't covered by any run
+            for(int dy = -1; y <= last && dy <= 1; dy += 2) {
+                if(this.isWalkable(x0, y) && this.isWalkable(x1, y + dy) && !this.isWalkable(x1, y) && !this.isWalkable(x0, y + dy)) {
+                    transitions.add(this.grid.index(x0, y), this.grid.index(x1, y + dy), Distance.DIAGONAL);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the transitions across the horizontal border south of cluster (kx, ky), which touch the cluster of the transitions.
+     * Diagonal moves into another column of clusters are added by {@link HierarchicalAStar#addVerticalTransitions}.
+     */
+    private void addHorizontalTransitions(int kx, int ky, Transitions transitions) {
+        if(kx < 0 || ky < 0 || kx >= this.clustersX || ky >= this.clustersY - 1) {
+            return;
+        }
+        int y0 = (ky + 1) * this.clusterSize - 1;
+        int y1 = y0 + 1;
+        int first = kx * this.clusterSize;
+        int last = Math.min(first + this.clusterSize, this.width) - 1;
+
+        int runStart = NO_CELL;
+        for(int x = first; x <= last + 1; x++) {
+            boolean crossable = x <= last && this.isWalkable(x, y0) && this.isWalkable(x, y1);
+            if(crossable && runStart == NO_CELL) {
+                runStart = x;
+            }
+            else if(!crossable && runStart != NO_CELL) {
+                int runEnd = x - 1;
+                if(runEnd - runStart + 1 < MAX_RUN_FOR_ONE_ENTRANCE) {
+                    int middle = (runStart + runEnd) / 2;
+                    transitions.add(this.grid.index(middle, y0), this.grid.index(middle, y1), Distance.STRAIGHT);
+                }
+                else {
+                    transitions.add(this.grid.index(runStart, y0), this.grid.index(runStart, y1), Distance.STRAIGHT);
+                    transitions.add(this.grid.index(runEnd, y0), this.grid.index(runEnd, y1), Distance.STRAIGHT);
+                }
+                runStart = NO_CELL;
+            }
+
+            for(int dx = -1; x <= last && dx <= 1; dx += 2) {
+                if(x + dx >= first && x + dx <= last && this.isWalkable(x, y0) && this.isWalkable(x + dx, y1) && !this.isWalkable(x, y1) && !this.isWalkable(x + dx, y0)) {
+                    transitions.add(this.grid.index(x, y0), this.grid.index(x + dx, y1), Distance.DIAGONAL);
+                }
+            }
+        }
+    }
+
+    /**
+     * Search restricted to the cells of one cluster: Dijkstra to all cells if no target is given, A* otherwise.
+     * Costs can be read with {@link HierarchicalAStar#getLocalCost} afterwards.
+     *
+     * @param cluster cluster to be searched
+     * @param from    cell of the cluster to start from
+     * @param to      cell of the cluster to stop at or {@link HierarchicalAStar#NO_CELL}
+     */
+    private void searchCluster(Cluster cluster, int from, int to) {
+        this.localEpoch += 2;  // epoch: opened, epoch + 1: closed
+        if(this.localEpoch < 0) {
+            Arrays.fill(this.localStamp, 0);
+            this.localEpoch = 2;
+        }
+        int toX = to == NO_CELL ? 0 : this.grid.x(to);
+        int toY = to == NO_CELL ? 0 : this.grid.y(to);
+
+        this.localOpen.clear();
+        int fromLocal = this.localIndex(cluster, from);
+        this.localStamp[fromLocal] = this.localEpoch;
+        this.localCost[fromLocal] = 0;
+        this.localExplorer[fromLocal] = NO_CELL;
+        this.localOpen.add(from, 0);
+
+        while(!this.localOpen.isEmpty()) {
+            int cell = this.localOpen.removeFirst();
+            int local = this.localIndex(cluster, cell);
+            if(this.localStamp[local] != this.localEpoch) {  // outdated entry
+                continue;
+            }
+            if(cell == to) {
+                return;
+            }
+            this.localStamp[local] = this.localEpoch + 1;
+
+            int y = cell / this.width;
+            int x = cell - y * this.width;
+            int cost = this.localCost[local];
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int nx = x + Directions.DX[d];
+                int ny = y + Directions.DY[d];
+                if(nx < cluster.x0 || ny < cluster.y0 || nx >= cluster.x0 + cluster.width || ny >= cluster.y0 + cluster.height) {
+                    continue;
+                }
+                int neighbour = cell + this.offsets[d];
+                int neighbourLocal = local + Directions.DY[d] * cluster.width + Directions.DX[d];
+                if(this.grid.isBarrier(neighbour) || this.localStamp[neighbourLocal] == this.localEpoch + 1) {
+                    continue;
+                }
+                int newCost = cost + Directions.COST[d];
+                if(this.localStamp[neighbourLocal] != this.localEpoch || newCost < this.localCost[neighbourLocal]) {
+                    this.localStamp[neighbourLocal] = this.localEpoch;
+                    this.localCost[neighbourLocal] = newCost;
+                    this.localExplorer[neighbourLocal] = cell;
+                    int h_cost = to == NO_CELL ? 0 : Distance.octile(nx, ny, toX, toY);
+                    this.localOpen.add(neighbour, (long) (newCost + h_cost) << 32 | h_cost);
+                }
+            }
+        }
+    }
+
+    private int getLocalCost(Cluster cluster, int cell) {
+        int local = this.localIndex(cluster, cell);
+        return this.localStamp[local] >= this.localEpoch ? this.localCost[local] : INFINITE;
+    }
+
+    private int[] getLocalCosts(Cluster cluster, int[] cells) {
+        int[] costs = new int[cells.length];
+        for(int i = 0; i < cells.length; i++) {
+            costs[i] = this.getLocalCost(cluster, cells[i]);
+        }
+        return costs;
+    }
+
+    private int localIndex(Cluster cluster, int cell) {
+        int y = cell / this.width;
+        return (y - cluster.y0) * cluster.width + cell - y * this.width - cluster.x0;
+    }
+
+    private int clusterOf(int x, int y) {
+        return y / this.clusterSize * this.clustersX + x / this.clusterSize;
+    }
+
+    private void markDirty(int cluster) {
+        if(!this.isDirty[cluster]) {
+            this.isDirty[cluster] = true;
+            this.dirty[this.dirtyCount++] = cluster;
+        }
+    }
+
+    private boolean isWalkable(int x, int y) {
+        return this.grid.contains(x, y) && !this.grid.isBarrier(x, y);
+    }
+
+    /**
+     * Part of the grid with its entrances, the nodes of the abstract graph.
+     */
+    private static final class Cluster {
+        final int kx, ky;  // position among the clusters
+        final int x0, y0, width, height;  // cells covered
+        int[] cells = new int[0];  // entrances, sorted
+        int firstId, capacity;  // node ids: firstId + position in cells
+        int[] distances;  // within the cluster, between entrances i and j at i * cells.length + j
+        int[][] segments;  // cells of the way between entrances i and j, at the same position, once it's needed
+        int[][] interCells, interCosts;  // moves across the border, by entrance
+
+        Cluster(int kx, int ky, int x0, int y0, int width, int height) {
+            this.kx = kx;
+            this.ky = ky;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Moves across borders, oriented from a cell of the current cluster to a cell of another one.
+     */
+    private final class Transitions {
+        int[] from = new int[64], to = new int[64], cost = new int[64];
+        int size;
+        Cluster cluster;
+
+        void clear(Cluster cluster) {
+            this.cluster = cluster;
+            this.size = 0;
+        }
+
+        void add(int a, int b, int cost) {
+            Cluster cluster = this.cluster;
+            boolean aInside = this.contains(cluster, a);
+            if(!aInside && !this.contains(cluster, b)) {  // doesn't touch the current cluster
+                return;
+            }
+            if(this.size == this.from.length) {
+                this.from = Arrays.copyOf(this.from, this.size * 2);
+                this.to = Arrays.copyOf(this.to, this.size * 2);
+                this.cost = Arrays.copyOf(this.cost, this.size * 2);
+            }
+            this.from[this.size] = aInside ? a : b;
+            this.to[this.size] = aInside ? b : a;
+            this.cost[this.size++] = cost;
+        }
+
+        private boolean contains(Cluster cluster, int cell) {
+            int x = HierarchicalAStar.this.grid.x(cell);
+            int y = HierarchicalAStar.this.grid.y(cell);
+            return x >= cluster.x0 && y >= cluster.y0 && x < cluster.x0 + cluster.width && y < cluster.y0 + cluster.height;
+        }
+    }
+}
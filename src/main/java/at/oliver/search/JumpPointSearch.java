@@ -0,0 +1,305 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntHeap;
+import at.oliver.heap.IntMinHeap;
+
+/**
+ * Jump Point Search: A* which only puts jump points on the open list. From every expanded cell it follows
+ * the directions that can't be reached as cheaply without it (natural and forced neighbours) in straight lines,
+ * until a cell with a forced neighbour or the target is found. Skipping the symmetric paths between, it returns
+ * paths of the same cost as {@code AStar} under the same moves, diagonal moves past barriers included.
+ * Straight jumps scan the {@link BarrierBitmap} of the grid, testing 64 cells and their neighbours at once.
+ * <p>
+ * The returned path contains every cell, not just the jump points. The state of the search lives in a
+ * {@code SearchContext}, which is reused by the following searches. Not thread-safe, one search at a time.
+ *
+ * @see AStar
+ */
+public class JumpPointSearch implements PathFinder {
+    protected static final int NO_CELL = -1;
+
+    protected final Grid grid;
+    protected final int width, height;
+    protected final int[] offsets;  // index differences of the directions
+    private final BarrierBitmap rows, columns;  // of the grid, a column of the grid is a row of the columns
+
+    // state of the running search
+    protected int target, targetX, targetY;
+    private final SearchContext context;
+    private final int[] g_cost, explorer;  // of the context
+    private final IntHeap open;  // of the context
+
+    public JumpPointSearch(Grid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.rows = grid.getBarrierBitmap();
+        this.columns = grid.getColumnBitmap();
+
+        this.context = new SearchContext(grid.size(), new IntMinHeap(1024));  // jumps are too long for a BucketQueue
+        this.g_cost = this.context.g_cost;
+        this.explorer = this.context.explorer;
+        this.open = this.context.open;
+    }
+
+    @Override
+    public SearchResult findPath(int startX, int startY, int targetX, int targetY) {
+        if(!this.grid.contains(startX, startY) || !this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at JumpPointSearch: start and target must lie within the grid");
+        }
+        long begin = System.nanoTime();
+        SearchStats stats = new SearchStats();
+
+        int start = this.grid.index(startX, startY);
+        this.target = this.grid.index(targetX, targetY);
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.context.reset();
+
+        this.open(start, startX, startY, 0, NO_CELL, stats);
+        stats.openedNodes++;
+
+        SearchResult result = null;
+        while(!this.open.isEmpty()) {
+            int current = this.open.removeFirst();  // returns item with lowest f_cost
+            if(this.context.isClosed(current)) {  // outdated entry
+                continue;
+            }
+            if(current == this.target) {
+                result = new SearchResult(this.getPath(), this.g_cost[current], stats);
+                break;
+            }
+            this.context.setClosed(current);
+            stats.expandedNodes++;
+
+            int currentY = current / this.width;
+            int currentX = current - currentY * this.width;
+            int directions = this.getDirections(currentX, currentY, this.explorer[current]);
+
+            for(int d = 0; d < Directions.COUNT; d++) {
+                if((directions & 1 << d) == 0) {
+                    continue;
+                }
+                int jumpPoint = this.jump(currentX, currentY, d);
+                if(jumpPoint == NO_CELL || this.context.isClosed(jumpPoint)) {
+                    continue;
+                }
+
+                int x = this.grid.x(jumpPoint);
+                int y = this.grid.y(jumpPoint);
+                int newCost = this.g_cost[current] + Distance.octile(currentX, currentY, x, y);
+                if(!this.context.isOpened(jumpPoint)) {
+                    this.open(jumpPoint, x, y, newCost, current, stats);
+                    stats.openedNodes++;
+                }
+                else if(newCost < this.g_cost[jumpPoint]) {
+                    this.g_cost[jumpPoint] = newCost;
+                    this.explorer[jumpPoint] = current;
+                    this.push(jumpPoint, key(newCost, Distance.octile(x, y, targetX, targetY)), stats);  // outdated entry will be skipped
+                    stats.decreasedKeys++;
+                }
+            }
+        }
+
+        stats.searchNanos = System.nanoTime() - begin;
+        return result == null ? SearchResult.noPath(stats) : result;
+    }
+
+    /**
+     * Follows the direction from the cell until a jump point is found.
+     *
+     * @param x x-position of the cell
+     * @param y y-position of the cell
+     * @param d direction of the jump
+     * @return index of the jump point, {@link JumpPointSearch#NO_CELL} if a barrier or the border is reached first
+     * @see Directions
+     */
+    protected int jump(int x, int y, int d) {
+        int dx = Directions.DX[d];
+        int dy = Directions.DY[d];
+        if(!Directions.isDiagonal(d)) {
+            return this.jumpStraight(x, y, dx, dy);
+        }
+
+        while(true) {
+            x += dx;
+            y += dy;
+            if(!this.isWalkable(x, y)) {
+                return NO_CELL;
+            }
+            if(x == this.targetX && y == this.targetY || this.hasForcedNeighbour(x, y, dx, dy)) {
+                return this.grid.index(x, y);
+            }
+            // straight jumps are part of the diagonal jump
+            if(this.jumpStraight(x, y, dx, 0) != NO_CELL || this.jumpStraight(x, y, 0, dy) != NO_CELL) {
+                return this.grid.index(x, y);
+            }
+        }
+    }
+
+    private int jumpStraight(int x, int y, int dx, int dy) {
+        if(dy == 0) {
+            int jumpX = scan(this.rows, x, y, dx, y == this.targetY ? this.targetX : NO_CELL);
+            return jumpX == NO_CELL ? NO_CELL : this.grid.index(jumpX, y);
+        }
+        int jumpY = scan(this.columns, y, x, dy, x == this.targetX ? this.targetY : NO_CELL);
+        return jumpY == NO_CELL ? NO_CELL : this.grid.index(x, jumpY);
+    }
+
+    /**
+     * Follows a row of the bitmap, 64 cells at a time, until the first cell with a forced neighbour or the target.
+     * A cell has a forced neighbour if a neighbour beside it is a barrier and the cell after that neighbour isn't.
+     *
+     * @param x      x-position in the bitmap to start after
+     * @param y      row of the bitmap
+     * @param step   1 or -1
+     * @param target x-position of the target in the row, {@link JumpPointSearch#NO_CELL} if it's not in the row
+     * @return x-position of the jump point, {@link JumpPointSearch#NO_CELL} if a barrier or the border is reached first
+     */
+    private static int scan(BarrierBitmap bitmap, int x, int y, int step, int target) {
+        if(step > 0) {
+            for(int from = x + 1; ; from += 64) {  // bit i is the cell from + i
+                long stops = bitmap.bitsFrom(from, y - 1) & ~bitmap.bitsFrom(from + 1, y - 1)
+                        | bitmap.bitsFrom(from, y + 1) & ~bitmap.bitsFrom(from + 1, y + 1);
+                if(target >= from && target - from < 64) {
+                    stops |= 1L << (target - from);
+                }
+                int barrier = Long.numberOfTrailingZeros(bitmap.bitsFrom(from, y));
+                int stop = Long.numberOfTrailingZeros(stops);
+                if(stop < barrier) {
+                    return from + stop;
+                }
+                if(barrier < 64) {
+                    return NO_CELL;
+                }
+            }
+        }
+        for(int to = x - 1; ; to -= 64) {  // bit 63 - i is the cell to - i
+            long stops = bitmap.bitsTo(to, y - 1) & ~bitmap.bitsTo(to - 1, y - 1)
+                    | bitmap.bitsTo(to, y + 1) & ~bitmap.bitsTo(to - 1, y + 1);
+            if(target != NO_CELL && target <= to && to - target < 64) {
+                stops |= 1L << (63 - (to - target));
+            }
+            int barrier = Long.numberOfLeadingZeros(bitmap.bitsTo(to, y));
+            int stop = Long.numberOfLeadingZeros(stops);
+            if(stop < barrier) {
+                return to - stop;
+            }
+            if(barrier < 64) {
+                return NO_CELL;
+            }
+        }
+    }
+
+    /**
+     * Tests whether a cell, entered by the given move, has a neighbour which can't be reached as cheaply without it.
+     *
+     * @param x  x-position of the cell
+     * @param y  y-position of the cell
+     * @param dx x-component of the move
+     * @param dy y-component of the move
+     * @return {@code true} if the cell is a jump point
+     */
+    protected boolean hasForcedNeighbour(int x, int y, int dx, int dy) {
+        if(dx != 0 && dy != 0) {
+            return !this.isWalkable(x - dx, y) && this.isWalkable(x - dx, y + dy) || !this.isWalkable(x, y - dy) && this.isWalkable(x + dx, y - dy);
+        }
+        if(dx != 0) {
+            return !this.isWalkable(x, y + 1) && this.isWalkable(x + dx, y + 1) || !this.isWalkable(x, y - 1) && this.isWalkable(x + dx, y - 1);
+        }
+        return !this.isWalkable(x + 1, y) && this.isWalkable(x + 1, y + dy) || !this.isWalkable(x - 1, y) && this.isWalkable(x - 1, y + dy);
+    }
+
+    /**
+     * Returns the directions to be followed from a cell: natural neighbours and those forced by barriers.
+     *
+     * @param x        x-position of the cell
+     * @param y        y-position of the cell
+     * @param explorer index of the cell the cell was reached from, {@link JumpPointSearch#NO_CELL} for the start
+     * @return bit mask of the directions
+     */
+    protected int getDirections(int x, int y, int explorer) {
+        if(explorer == NO_CELL) {  // start: all directions
+            return (1 << Directions.COUNT) - 1;
+        }
+        int dx = Integer.signum(x - this.grid.x(explorer));
+        int dy = Integer.signum(y - this.grid.y(explorer));
+
+        int directions = 1 << Directions.of(dx, dy);
+        if(dx != 0 && dy != 0) {
+            directions |= 1 << Directions.of(dx, 0) | 1 << Directions.of(0, dy);
+            if(!this.isWalkable(x - dx, y)) {
+                directions |= 1 << Directions.of(-dx, dy);
+            }
+            if(!this.isWalkable(x, y - dy)) {
+                directions |= 1 << Directions.of(dx, -dy);
+            }
+        }
+        else if(dx != 0) {
+            if(!this.isWalkable(x, y + 1)) {
+                directions |= 1 << Directions.of(dx, 1);
+            }
+            if(!this.isWalkable(x, y - 1)) {
+                directions |= 1 << Directions.of(dx, -1);
+            }
+        }
+        else {
+            if(!this.isWalkable(x + 1, y)) {
+                directions |= 1 << Directions.of(1, dy);
+            }
+            if(!this.isWalkable(x - 1, y)) {
+                directions |= 1 << Directions.of(-1, dy);
+            }
+        }
+        return directions;
+    }
+
+    protected boolean isWalkable(int x, int y) {
+        return !this.rows.isBarrier(x, y);
+    }
+
+    private void open(int index, int x, int y, int g_cost, int explorer, SearchStats stats) {
+        this.g_cost[index] = g_cost;
+        this.explorer[index] = explorer;
+        this.context.setOpened(index);
+        this.push(index, key(g_cost, Distance.octile(x, y, this.targetX, this.targetY)), stats);
+    }
+
+    private void push(int index, long key, SearchStats stats) {
+        this.open.add(index, key);
+        if(this.open.size() > stats.peakOpenSize) {
+            stats.peakOpenSize = this.open.size();
+        }
+    }
+
+    private static long key(int g_cost, int h_cost) {
+        return (long) (g_cost + h_cost) << 32 | h_cost;
+    }
+
+    /**
+     * Connects the jump points from start to target by the cells between them.
+     *
+     * @return cell indices from start to target
+     */
+    private int[] getPath() {
+        int length = 1;
+        for(int index = this.target; this.explorer[index] != NO_CELL; index = this.explorer[index]) {
+            int previous = this.explorer[index];
+            length += Math.max(Math.abs(this.grid.x(index) - this.grid.x(previous)), Math.abs(this.grid.y(index) - this.grid.y(previous)));
+        }
+
+        int[] path = new int[length];
+        int position = length - 1;
+        path[position] = this.target;
+        for(int index = this.target; this.explorer[index] != NO_CELL; index = this.explorer[index]) {
+            int previous = this.explorer[index];
+            int step = this.offsets[Directions.of(Integer.signum(this.grid.x(index) - this.grid.x(previous)), Integer.signum(this.grid.y(index) - this.grid.y(previous)))];
+            for(int cell = index - step; cell != previous; cell -= step) {
+                path[--position] = cell;
+            }
+            path[--position] = previous;
+        }
+        return path;
+    }
+}
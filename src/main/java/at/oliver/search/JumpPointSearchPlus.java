@@ -0,0 +1,106 @@
+package at.oliver.search;
+
+/**
+ * JPS+: Jump Point Search with precomputed jumps. For every cell and direction the distance to the next jump point
+ * (positive) or to the next barrier or border (zero or negative) is stored, so a jump is a table lookup instead of
+ * a scan. The target is taken into account during the search: a jump stops at the target or, for diagonal jumps,
+ * at the row or column of the target.
+ * <p>
+ * The tables take 32 bytes per cell and are computed once in the constructor, the grid must not change afterwards.
+ *
+ * @see JumpPointSearch
+ */
+public class JumpPointSearchPlus extends JumpPointSearch {
+    private final int[] distances;  // by index * COUNT + direction
+
+    public JumpPointSearchPlus(Grid grid) {
+        super(grid);
+        if((long) grid.size() * Directions.COUNT > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Error at JumpPointSearchPlus: grid is too large for the jump tables");
+        }
+        this.distances = new int[grid.size() * Directions.COUNT];
+
+        for(int d = 0; d < Directions.COUNT; d++) {  // straight directions first, diagonal jumps depend on them
+            this.precompute(d);
+        }
+    }
+
+    /**
+     * Fills the table of one direction, beginning at the far end so the next cell in direction d is always done.
+     *
+     * @param d direction
+     */
+    private void precompute(int d) {
+        int dx = Directions.DX[d];
+        int dy = Directions.DY[d];
+        int firstY = dy > 0 ? this.height - 1 : 0, stepY = dy > 0 ? -1 : 1;
+        int firstX = dx > 0 ? this.width - 1 : 0, stepX = dx > 0 ? -1 : 1;
+
+        for(int y = firstY; y >= 0 && y < this.height; y += stepY) {
+            for(int x = firstX; x >= 0 && x < this.width; x += stepX) {
+                int index = y * this.width + x;
+                if(!this.isWalkable(x, y) || !this.isWalkable(x + dx, y + dy)) {
+                    this.distances[index * Directions.COUNT + d] = 0;  // blocked right away
+                    continue;
+                }
+
+                int next = index + this.offsets[d];
+                if(this.isJumpPoint(x + dx, y + dy, d)) {
+                    this.distances[index * Directions.COUNT + d] = 1;
+                }
+                else {
+                    int distance = this.distances[next * Directions.COUNT + d];
+                    this.distances[index * Directions.COUNT + d] = distance > 0 ? distance + 1 : distance - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if a jump in direction d stops at the cell, not considering any target
+     */
+    private boolean isJumpPoint(int x, int y, int d) {
+        int dx = Directions.DX[d];
+        int dy = Directions.DY[d];
+        if(this.hasForcedNeighbour(x, y, dx, dy)) {
+            return true;
+        }
+        if(Directions.isDiagonal(d)) {  // straight jumps are part of the diagonal jump
+            int index = y * this.width + x;
+            return this.distances[index * Directions.COUNT + Directions.of(dx, 0)] > 0 || this.distances[index * Directions.COUNT + Directions.of(0, dy)] > 0;
+        }
+        return false;
+    }
+
+    /**
+     * Looks the jump up in the table. Only the start can be a barrier, the table holds no jumps from barriers:
+     * like {@code AStar}, the search leaves such a start, so its jumps are followed like in {@code JumpPointSearch}.
+     */
+    @Override
+    protected int jump(int x, int y, int d) {
+        if(!this.isWalkable(x, y)) {
+            return super.jump(x, y, d);
+        }
+        int index = y * this.width + x;
+        int distance = this.distances[index * Directions.COUNT + d];
+        int dx = Directions.DX[d];
+        int dy = Directions.DY[d];
+        int toTargetX = this.targetX - x;
+        int toTargetY = this.targetY - y;
+
+        if(!Directions.isDiagonal(d)) {
+            int steps = dx != 0 ? (toTargetY == 0 && Integer.signum(toTargetX) == dx ? Math.abs(toTargetX) : 0)
+                    : (toTargetX == 0 && Integer.signum(toTargetY) == dy ? Math.abs(toTargetY) : 0);
+            if(steps > 0 && steps <= Math.abs(distance)) {  // target lies on the way
+                return this.target;
+            }
+        }
+        else if(Integer.signum(toTargetX) == dx && Integer.signum(toTargetY) == dy) {
+            int steps = Math.min(Math.abs(toTargetX), Math.abs(toTargetY));
+            if(steps <= Math.abs(distance)) {  // stopping at the row or column of the target
+                return index + steps * this.offsets[d];
+            }
+        }
+        return distance > 0 ? index + distance * this.offsets[d] : NO_CELL;
+    }
+}
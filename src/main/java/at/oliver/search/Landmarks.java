@@ -0,0 +1,342 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntHeap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Landmark heuristic (ALT: A*, landmarks and the triangle inequality). For a few landmark cells the distances to all
+ * cells are precomputed; by the triangle inequality {@code |d(L, target) - d(L, cell)|} is a lower bound of the distance
+ * between cell and target. On maps full of barriers it's far closer to the real distance than {@link Distance#octile},
+ * so A* explores fewer cells. The bound is consistent, paths stay optimal.
+ * <p>
+ * Landmarks are chosen far apart from each other and the distances are stored as {@code char}, two bytes per cell and
+ * landmark; only grids with distances beyond {@value MAX_CHAR_DISTANCE} need {@code int}s. The tables can be
+ * {@link Landmarks#save saved} and {@link Landmarks#load loaded} again, so large grids don't have to compute them
+ * at startup.
+ * <p>
+ * All landmarks lie in the connected area of the first walkable cell, elsewhere only the octile distance is used.
+ * The tables belong to the terrain they were computed on. Once the grid changes they're outdated: bounds taken from them
+ * could be too high, so {@code AStar} falls back to the octile distance. Thread-safe.
+ *
+ * @see AStar
+ */
+public class Landmarks {
+    public static final int DEFAULT_COUNT = 8;
+
+    private static final int MAX_CHAR_DISTANCE = Character.MAX_VALUE - 1;
+    private static final char UNREACHABLE_CHAR = Character.MAX_VALUE;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int MAGIC = 0x414c5431;  // "ALT1"
+
+    private final int width, height;
+    private final long terrainHash;
+    private final long version;  // of the grid the tables were computed or loaded for
+    private final int[] cells;  // indices of the landmarks
+    private final char[][] charDistances;  // by landmark and cell, null if the distances don't fit
+    private final int[][] intDistances;  // by landmark and cell, null if stored as chars
+
+    private Landmarks(int width, int height, long terrainHash, long version, int[] cells, char[][] charDistances, int[][] intDistances) {
+        this.width = width;
+        this.height = height;
+        this.terrainHash = terrainHash;
+        this.version = version;
+        this.cells = cells;
+        this.charDistances = charDistances;
+        this.intDistances = intDistances;
+    }
+
+    /**
+     * Chooses the landmarks and computes their distances, one Dijkstra search over the grid per landmark.
+     * Every landmark is the reachable cell farthest from the ones chosen before.
+     *
+     * @param grid  grid to compute the distances on
+     * @param count amount of landmarks, more make the heuristic better but take more memory and time per cell
+     * @return landmarks of the grid, none if the grid has no walkable cell
+     */
+    public static Landmarks compute(Grid grid, int count) {
+        if(count < 1) {
+            throw new IllegalArgumentException("Error at Landmarks: count must be positive");
+        }
+        long version = grid.getVersion();  // read first, a change while computing outdates the tables
+        int size = grid.size();
+        IntHeap open = OpenLists.create(size, Distance.DIAGONAL);
+        int[] closest = new int[size];  // distance to the closest landmark so far
+        Arrays.fill(closest, UNREACHABLE);
+
+        int next = 0;
+        while(next < size && grid.isBarrier(next)) {
+            next++;
+        }
+        if(next == size) {
+            return new Landmarks(grid.getWidth(), grid.getHeight(), terrainHash(grid), version, new int[0], new char[0][], null);
+        }
+        // the cell farthest from the first walkable cell lies at an edge of its area, a good first landmark
+        next = farthest(distances(grid, next, open), null);
+
+        int[] cells = new int[count];
+        int[][] tables = new int[count][];
+        int maxDistance = 0;
+        for(int i = 0; i < count; i++) {
+            cells[i] = next;
+            tables[i] = distances(grid, next, open);
+            for(int index = 0; index < size; index++) {
+                int distance = tables[i][index];
+                if(distance != UNREACHABLE) {
+                    maxDistance = Math.max(maxDistance, distance);
+                    closest[index] = Math.min(closest[index], distance);
+                }
+            }
+            next = farthest(closest, tables[0]);
+        }
+
+        if(maxDistance > MAX_CHAR_DISTANCE) {
+            return new Landmarks(grid.getWidth(), grid.getHeight(), terrainHash(grid), version, cells, null, tables);
+        }
+        char[][] charDistances = new char[count][size];
+        for(int i = 0; i < count; i++) {
+            for(int index = 0; index < size; index++) {
+                charDistances[i][index] = tables[i][index] == UNREACHABLE ? UNREACHABLE_CHAR : (char) tables[i][index];
+            }
+        }
+        return new Landmarks(grid.getWidth(), grid.getHeight(), terrainHash(grid), version, cells, charDistances, null);
+    }
+
+    /**
+     * Dijkstra search from the given cell to all cells.
+     *
+     * @return distances by cell index, {@code UNREACHABLE} for cells which can't be reached
+     */
+    private static int[] distances(Grid grid, int source, IntHeap open) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int[] offsets = Directions.offsets(width);
+        int[] distances = new int[grid.size()];
+        Arrays.fill(distances, UNREACHABLE);
+
+        open.clear();
+        distances[source] = 0;
+        open.add(source, 0);
+        while(!open.isEmpty()) {
+            int distance = (int) (open.firstKey() >>> 32);
+            int current = open.removeFirst();
+            if(distance > distances[current]) {  // skipping outdated entries
+                continue;
+            }
+            int currentY = current / width;
+            int currentX = current - currentY * width;
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int x = currentX + Directions.DX[d];
+                int y = currentY + Directions.DY[d];
+                if(x < 0 || y < 0 || x >= width || y >= height) {
+                    continue;
+                }
+                int neighbour = current + offsets[d];
+                int newDistance = distance + Directions.COST[d];
+                if(!grid.isBarrier(neighbour) && newDistance < distances[neighbour]) {
+                    distances[neighbour] = newDistance;
+                    open.add(neighbour, (long) newDistance << 32);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * @param distances distances by cell index
+     * @param reachable distances telling which cells can be reached, the given ones if {@code null}
+     * @return index of the reachable cell with the largest distance
+     */
+    private static int farthest(int[] distances, int[] reachable) {
+        int farthest = 0;
+        int max = -1;
+        for(int index = 0; index < distances.length; index++) {
+            boolean isReachable = (reachable == null ? distances[index] : reachable[index]) != UNREACHABLE;
+            if(isReachable && distances[index] > max) {
+                max = distances[index];
+                farthest = index;
+            }
+        }
+        return farthest;
+    }
+
+    /**
+     * @return FNV-1a hash of the size and terrain, telling whether saved tables belong to a grid
+     */
+    private static long terrainHash(Grid grid) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ grid.getWidth()) * 0x100000001b3L;
+        hash = (hash ^ grid.getHeight()) * 0x100000001b3L;
+        for(int index = 0; index < grid.size(); index++) {
+            hash = (hash ^ grid.getTerrain(index)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * @return amount of landmarks
+     */
+    public int getCount() {
+        return this.cells.length;
+    }
+
+    /**
+     * @return index of the landmark cell
+     */
+    public int getCell(int landmark) {
+        return this.cells[landmark];
+    }
+
+    /**
+     * @return {@code true} if the tables were computed on the current terrain of the grid
+     */
+    public boolean matches(Grid grid) {
+        return grid.getWidth() == this.width && grid.getHeight() == this.height && terrainHash(grid) == this.terrainHash;
+    }
+
+    /**
+     * Unlike {@link Landmarks#matches}, takes constant time: compares the {@link Grid#getVersion version} of the grid
+     * with the one the tables were computed or loaded for, which a {@link Grid#snapshot} keeps.
+     *
+     * @return {@code true} if the grid hasn't changed since
+     */
+    public boolean isCurrent(Grid grid) {
+        return grid.getWidth() == this.width && grid.getHeight() == this.height && grid.getVersion() == this.version;
+    }
+
+    /**
+     * Looks up the distances of the target once per search, used by every call of {@link Landmarks#lowerBound}.
+     *
+     * @param target index of the target
+     * @return distance from every landmark to the target
+     */
+    public int[] distancesTo(int target) {
+        int[] distances = new int[this.cells.length];
+        for(int i = 0; i < distances.length; i++) {
+            distances[i] = this.distance(i, target);
+        }
+        return distances;
+    }
+
+    /**
+     * Lower bound of the distance between a cell and the target, at least the octile distance. Landmarks which can't
+     * reach both cells are left out.
+     *
+     * @param index     index of the cell
+     * @param x         x-position of the cell
+     * @param y         y-position of the cell
+     * @param targetX   x-position of the target
+     * @param targetY   y-position of the target
+     * @param distances result of {@link Landmarks#distancesTo} for the target
+     * @return lower bound of the distance
+     */
+    public int lowerBound(int index, int x, int y, int targetX, int targetY, int[] distances) {
+        int bound = Distance.octile(x, y, targetX, targetY);
+        if(this.charDistances != null) {
+            for(int i = 0; i < distances.length; i++) {
+                char distance = this.charDistances[i][index];
+                if(distance != UNREACHABLE_CHAR && distances[i] != UNREACHABLE) {
+                    bound = Math.max(bound, Math.abs(distances[i] - distance));
+                }
+            }
+        }
+        else {
+            for(int i = 0; i < distances.length; i++) {
+                int distance = this.intDistances[i][index];
+                if(distance != UNREACHABLE && distances[i] != UNREACHABLE) {
+                    bound = Math.max(bound, Math.abs(distances[i] - distance));
+                }
+            }
+        }
+        return bound;
+    }
+
+    private int distance(int landmark, int index) {
+        if(this.charDistances != null) {
+            char distance = this.charDistances[landmark][index];
+            return distance == UNREACHABLE_CHAR ? UNREACHABLE : distance;
+        }
+        return this.intDistances[landmark][index];
+    }
+
+    /**
+     * Writes the landmarks and their tables to a file.
+     *
+     * @param file file to be written, replaced if it exists
+     * @throws IOException if the file can't be written
+     */
+    public void save(Path file) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(this.width);
+            out.writeInt(this.height);
+            out.writeLong(this.terrainHash);
+            out.writeInt(this.cells.length);
+            out.writeBoolean(this.charDistances != null);
+            for(int i = 0; i < this.cells.length; i++) {
+                out.writeInt(this.cells[i]);
+                ByteBuffer table;  // big-endian like the stream
+                if(this.charDistances != null) {
+                    table = ByteBuffer.allocate(2 * this.charDistances[i].length);
+                    table.asCharBuffer().put(this.charDistances[i]);
+                }
+                else {
+                    table = ByteBuffer.allocate(4 * this.intDistances[i].length);
+                    table.asIntBuffer().put(this.intDistances[i]);
+                }
+                out.write(table.array());
+            }
+        }
+    }
+
+    /**
+     * Reads landmarks written by {@link Landmarks#save}.
+     *
+     * @param file file to be read
+     * @param grid grid the landmarks are used for
+     * @return landmarks of the grid
+     * @throws IOException              if the file can't be read or is no landmark file
+     * @throws IllegalArgumentException if the landmarks were computed on another terrain
+     */
+    public static Landmarks load(Path file, Grid grid) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if(in.readInt() != MAGIC) {
+                throw new IOException("Error at Landmarks: " + file + " is no landmark file");
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            long terrainHash = in.readLong();
+            long version = grid.getVersion();  // read before the hash, a change while loading outdates the tables
+            if(width != grid.getWidth() || height != grid.getHeight() || terrainHash != terrainHash(grid)) {
+                throw new IllegalArgumentException("Error at Landmarks: " + file + " was computed on another terrain");
+            }
+            int count = in.readInt();
+            boolean isChar = in.readBoolean();
+            int size = width * height;
+
+            int[] cells = new int[count];
+            char[][] charDistances = isChar ? new char[count][size] : null;
+            int[][] intDistances = isChar ? null : new int[count][size];
+            for(int i = 0; i < count; i++) {
+                cells[i] = in.readInt();
+                byte[] table = new byte[(isChar ? 2 : 4) * size];
+                in.readFully(table);
+                if(isChar) {
+                    ByteBuffer.wrap(table).asCharBuffer().get(charDistances[i]);
+                }
+                else {
+                    ByteBuffer.wrap(table).asIntBuffer().get(intDistances[i]);
+                }
+            }
+            return new Landmarks(width, height, terrainHash, version, cells, charDistances, intDistances);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package at.oliver.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary map file: a grid with an optional start and target cell.
+ * <p>
+ * A header of {@value HEADER_SIZE} bytes (magic number, format version, width, height, start and target index as
+ * big-endian {@code int}s, then zeros) is followed by the terrain, one byte per cell in index order. {@link MapFile#read}
+ * maps the terrain into memory instead of reading it: the grid uses the mapped pages directly, so even grids of
+ * hundreds of millions of cells open in milliseconds, and only the cells a search touches are loaded from disk.
+ *
+ * @see Grid
+ */
+public class MapFile {
+    public static final int NO_CELL = -1;
+
+    private static final int MAGIC = 0x50464d50;  // "PFMP"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final Grid grid;
+    private final int start, target;
+
+    /**
+     * @param grid   grid to be stored
+     * @param start  index of the start cell, {@value NO_CELL} for none
+     * @param target index of the target cell, {@value NO_CELL} for none
+     */
+    public MapFile(Grid grid, int start, int target) {
+        if(start < NO_CELL || start >= grid.size() || target < NO_CELL || target >= grid.size()) {
+            throw new IllegalArgumentException("Error at MapFile: start and target must lie within the grid");
+        }
+        this.grid = grid;
+        this.start = start;
+        this.target = target;
+    }
+
+    /**
+     * Opens a map file. The grid is read-only, changing it would need a copy of the terrain.
+     *
+     * @param file file to be read
+     * @return the map with a grid mapped onto the file
+     * @throws IOException if the file can't be read or is no valid map file
+     */
+    public static MapFile read(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining() && channel.read(header) >= 0) {
+                // reading until the header is complete or the file ends
+            }
+            header.flip();
+            if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Error at MapFile: " + file + " is no map file");
+            }
+            int version = header.getInt();
+            if(version != FORMAT_VERSION) {
+                throw new IOException("Error at MapFile: format version " + version + " of " + file + " is not supported");
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            int start = header.getInt();
+            int target = header.getInt();
+            long cells = (long) width * height;
+            if(width < 1 || height < 1 || cells > Grid.MAX_CELLS || channel.size() != HEADER_SIZE + cells) {
+                throw new IOException("Error at MapFile: size of " + file + " doesn't match its header");
+            }
+            if(start < NO_CELL || start >= cells || target < NO_CELL || target >= cells) {
+                throw new IOException("Error at MapFile: start or target of " + file + " lie outside the grid");
+            }
+
+            ByteBuffer terrain = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, cells);  // stays valid after closing
+            return new MapFile(new Grid(width, height, terrain, true), start, target);
+        }
+    }
+
+    /**
+     * Writes the map to a file.
+     *
+     * @param file file to be written, replaced if it exists
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(this.grid.getWidth()).putInt(this.grid.getHeight()).putInt(this.start).putInt(this.target);
+            header.clear();  // the rest stays 0
+            writeFully(channel, header);
+            writeFully(channel, this.grid.terrain());
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public Grid getGrid() {
+        return this.grid;
+    }
+
+    /**
+     * @return index of the start cell, {@value NO_CELL} for none
+     */
+    public int getStart() {
+        return this.start;
+    }
+
+    /**
+     * @return index of the target cell, {@value NO_CELL} for none
+     */
+    public int getTarget() {
+        return this.target;
+    }
+}
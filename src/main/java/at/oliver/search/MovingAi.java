@@ -0,0 +1,239 @@
+package at.oliver.search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Reader of the grid benchmarks of Moving AI: maps ({@code .map}) and the scenarios searched on them ({@code .scen}).
+ * Both are streamed line by line, a map straight into the terrain of a {@code Grid}, scenarios one at a time.
+ * <p>
+ * Cells marked {@code .}, {@code G} or {@code S} are walkable, all others ({@code @}, {@code O}, {@code T}, {@code W})
+ * become barriers. The benchmarks forbid cutting corners and count diagonals as {@code sqrt(2)}, so lengths found
+ * with the {@link Distance} model of this package may be slightly shorter than the reference lengths.
+ *
+ * @see ScenarioRunner
+ */
+public final class MovingAi {
+    private MovingAi() {
+    }
+
+    /**
+     * Reads a map in the octile format.
+     *
+     * @param file {@code .map} file
+     * @return grid of the map
+     * @throws IOException if the file can't be read or is malformed
+     */
+    public static Grid readMap(Path file) throws IOException {
+        try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            return readMap(reader, file.toString());
+        }
+    }
+
+    /**
+     * @param reader reader positioned at the beginning of a map
+     * @param name   name of the map in error messages
+     */
+    static Grid readMap(BufferedReader reader, String name) throws IOException {
+        int width = -1, height = -1;
+        String line;
+        while((line = reader.readLine()) != null && !line.trim().equals("map")) {
+            String[] fields = line.trim().split("\\s+");
+            if(fields.length == 2 && fields[0].equals("height")) {
+                height = parseInt(fields[1], name);
+            }
+            else if(fields.length == 2 && fields[0].equals("width")) {
+                width = parseInt(fields[1], name);
+            }
+            else if(fields.length == 2 && fields[0].equals("type") && !fields[1].equals("octile")) {
+                throw new IOException("Error at MovingAi: type " + fields[1] + " of " + name + " is not supported");
+            }
+        }
+        if(line == null || width < 1 || height < 1) {
+            throw new IOException("Error at MovingAi: " + name + " has no valid header");
+        }
+        if((long) width * height > Grid.MAX_CELLS) {
+            throw new IOException("Error at MovingAi: " + name + " has more than " + Grid.MAX_CELLS + " cells");
+        }
+
+        ByteBuffer terrain = ByteBuffer.allocate(width * height);
+        for(int y = 0; y < height; y++) {
+            line = reader.readLine();
+            if(line == null || line.length() < width) {
+                throw new IOException("Error at MovingAi: row " + y + " of " + name + " is missing or too short");
+            }
+            for(int x = 0; x < width; x++) {
+                terrain.put(y * width + x, isWalkable(line.charAt(x)) ? Grid.WALKABLE : Grid.BARRIER);
+            }
+        }
+        return new Grid(width, height, terrain, false);
+    }
+
+    private static boolean isWalkable(char cell) {
+        return cell == '.' || cell == 'G' || cell == 'S';
+    }
+
+    /**
+     * Streams the scenarios of a {@code .scen} file, reading the next line only when the next scenario is needed.
+     * The stream must be closed to close the file; read errors are thrown as {@code UncheckedIOException}.
+     *
+     * @param file {@code .scen} file of version 1
+     * @return scenarios in the order of the file
+     * @throws IOException if the file can't be opened or isn't of version 1
+     */
+    public static Stream<Scenario> scenarios(Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII);
+        try {
+            String version = reader.readLine();
+            if(version == null || !version.trim().matches("version\\s+1(\\.0)?")) {
+                throw new IOException("Error at MovingAi: " + file + " is no scenario file of version 1");
+            }
+        }
+        catch(IOException e) {
+            reader.close();
+            throw e;
+        }
+        return reader.lines()
+                .filter(line -> !line.isBlank())
+                .map(line -> parseScenario(line, file))
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    }
+                    catch(IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static Scenario parseScenario(String line, Path file) {
+        String[] fields = line.split("\t");
+        if(fields.length != 9) {
+            throw new UncheckedIOException(new IOException("Error at MovingAi: malformed scenario in " + file + ": " + line));
+        }
+        try {
+            return new Scenario(Integer.parseInt(fields[0]), fields[1], Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                    Integer.parseInt(fields[4]), Integer.parseInt(fields[5]), Integer.parseInt(fields[6]), Integer.parseInt(fields[7]),
+                    Double.parseDouble(fields[8]));
+        }
+        catch(NumberFormatException e) {
+            throw new UncheckedIOException(new IOException("Error at MovingAi: malformed scenario in " + file + ": " + line, e));
+        }
+    }
+
+    private static int parseInt(String value, String name) throws IOException {
+        try {
+            return Integer.parseInt(value);
+        }
+        catch(NumberFormatException e) {
+            throw new IOException("Error at MovingAi: " + value + " in " + name + " is no number", e);
+        }
+    }
+
+    /**
+     * Length of a path in the unit of the benchmarks: 1 straight, {@code sqrt(2)} crosswise, the length of the
+     * straight line between waypoints of an any-angle path.
+     *
+     * @param grid grid the path was found on
+     * @param path cell indices from start to target
+     * @return length of the path
+     */
+    public static double length(Grid grid, int[] path) {
+        int straight = 0, diagonal = 0;
+        double lines = 0;
+        for(int i = 1; i < path.length; i++) {
+            long diffX = Math.abs(grid.x(path[i]) - grid.x(path[i - 1]));
+            long diffY = Math.abs(grid.y(path[i]) - grid.y(path[i - 1]));
+            if(diffX > 1 || diffY > 1) {
+                lines += Math.sqrt(diffX * diffX + diffY * diffY);
+            }
+            else if(diffX == 1 && diffY == 1) {
+                diagonal++;
+            }
+            else {
+                straight++;
+            }
+        }
+        return lines + straight + diagonal * Math.sqrt(2);
+    }
+
+    /**
+     * One search of a scenario file, with the length of the optimal path.
+     */
+    public static final class Scenario {
+        private final int bucket;
+        private final String map;
+        private final int mapWidth, mapHeight;
+        private final int startX, startY, targetX, targetY;
+        private final double optimalLength;
+
+        Scenario(int bucket, String map, int mapWidth, int mapHeight, int startX, int startY, int targetX, int targetY, double optimalLength) {
+            this.bucket = bucket;
+            this.map = map;
+            this.mapWidth = mapWidth;
+            this.mapHeight = mapHeight;
+            this.startX = startX;
+            this.startY = startY;
+            this.targetX = targetX;
+            this.targetY = targetY;
+            this.optimalLength = optimalLength;
+        }
+
+        /**
+         * @return group of scenarios of similar length
+         */
+        public int getBucket() {
+            return this.bucket;
+        }
+
+        /**
+         * @return path of the map file as written in the scenario file
+         */
+        public String getMap() {
+            return this.map;
+        }
+
+        public int getMapWidth() {
+            return this.mapWidth;
+        }
+
+        public int getMapHeight() {
+            return this.mapHeight;
+        }
+
+        public int getStartX() {
+            return this.startX;
+        }
+
+        public int getStartY() {
+            return this.startY;
+        }
+
+        public int getTargetX() {
+            return this.targetX;
+        }
+
+        public int getTargetY() {
+            return this.targetY;
+        }
+
+        /**
+         * @return length of the optimal path without cutting corners, diagonals count {@code sqrt(2)}
+         */
+        public double getOptimalLength() {
+            return this.optimalLength;
+        }
+
+        @Override
+        public String toString() {
+            return "Scenario[" + this.map + ", (" + this.startX + ", " + this.startY + ") -> (" + this.targetX + ", " + this.targetY
+                    + "), optimal: " + this.optimalLength + "]";
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package at.oliver.search;
+
+import at.oliver.heap.BucketQueue;
+import at.oliver.heap.IntHeap;
+import at.oliver.heap.IntMinHeap;
+
+/**
+ * Chooses the open list of a search by its costs.
+ */
+public final class OpenLists {
+    /**
+     * Up to this edge cost the ring of a {@code BucketQueue} stays small enough to be faster than a heap.
+     */
+    public static final int BUCKET_QUEUE_MAX_EDGE_COST = 256;
+
+    private OpenLists() {
+    }
+
+    /**
+     * Returns a {@code BucketQueue} if the maximum edge cost is small, an {@code IntMinHeap} otherwise.
+     * The {@code BucketQueue} is fast for searches with a consistent heuristic which take the first cell every time,
+     * other keys are kept aside at the cost of a heap.
+     *
+     * @param capacity     expected amount of cells
+     * @param maxEdgeCost  highest cost of a single move
+     * @return empty open list
+     */
+    public static IntHeap create(int capacity, int maxEdgeCost) {
+        if(maxEdgeCost <= BUCKET_QUEUE_MAX_EDGE_COST) {
+            return new BucketQueue(2 * maxEdgeCost);
+        }
+        return new IntMinHeap(Math.min(capacity, 1024));
+    }
+}
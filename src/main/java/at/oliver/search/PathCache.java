@@ -0,0 +1,196 @@
+package at.oliver.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of search results by start and target, for workloads asking the same queries again and again.
+ * Results belong to the {@link Grid#getVersion version} of the grid they were found on: as soon as the terrain
+ * changes, all cached results are dropped. When the cache is full, the least recently used result is evicted.
+ * <p>
+ * Cached results are shared between all callers, their paths must not be modified. Thread-safe; searches of
+ * different queries run at the same time, concurrent misses of the same query search it more than once.
+ *
+ * @see PathFinder
+ */
+public class PathCache implements PathFinder {
+    private final Grid grid;
+    private final PathFinder finder;  // null if results are only put
+    private final int capacity;
+
+    private final LinkedHashMap<Long, SearchResult> results;  // by start in the upper, target in the lower 32 bits, least recently used first
+    private long version;  // of the grid the cached results belong to
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Creates a cache, which is only filled by {@link PathCache#put}, for results searched elsewhere.
+     * It can't search misses itself, {@link PathCache#findPath} is unsupported.
+     *
+     * @param grid     grid the results belong to
+     * @param capacity maximum amount of cached results
+     */
+    public PathCache(Grid grid, int capacity) {
+        this(grid, null, capacity);
+    }
+
+    /**
+     * @param grid     grid searched by the {@code PathFinder}
+     * @param finder   searches the results of misses
+     * @param capacity maximum amount of cached results
+     */
+    public PathCache(Grid grid, PathFinder finder, int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Error at PathCache: capacity must be positive");
+        }
+        this.grid = grid;
+        this.finder = finder;
+        this.capacity = capacity;
+        this.version = grid.getVersion();
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SearchResult> eldest) {
+                if(this.size() > PathCache.this.capacity) {
+                    PathCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result, or searches and caches it on a miss.
+     *
+     * @throws UnsupportedOperationException if the cache has been created without a {@code PathFinder}
+     */
+    @Override
+    public SearchResult findPath(int startX, int startY, int targetX, int targetY) {
+        if(this.finder == null) {
+            throw new UnsupportedOperationException("Error at PathCache: a cache without PathFinder can't search");
+        }
+        SearchResult result = this.getCached(startX, startY, targetX, targetY);
+        if(result != null) {
+            return result;
+        }
+        long version = this.grid.getVersion();
+        result = this.finder.findPath(startX, startY, targetX, targetY);
+        this.put(version, startX, startY, targetX, targetY, result);
+        return result;
+    }
+
+    /**
+     * Looks up a result without searching, counted as a hit or a miss.
+     *
+     * @return cached result, {@code null} if there is none for the current version of the grid
+     */
+    public SearchResult getCached(int startX, int startY, int targetX, int targetY) {
+        if(!this.grid.contains(startX, startY) || !this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at PathCache: start and target must lie within the grid");
+        }
+        SearchResult result;
+        synchronized(this.results) {
+            this.validate();
+            result = this.results.get(this.key(startX, startY, targetX, targetY));
+        }
+        (result != null ? this.hits : this.misses).increment();
+        return result;
+    }
+
+    /**
+     * Caches a result searched elsewhere, e.g. by a search shown step by step. Partial results and results of an
+     * outdated version are ignored.
+     *
+     * @param version version of the grid when the search started
+     * @param result  result of a search finding the shortest path
+     */
+    public void put(long version, int startX, int startY, int targetX, int targetY, SearchResult result) {
+        if(result.isPartial()) {  // stopped by its budget, another search might get further
+            return;
+        }
+        synchronized(this.results) {
+            this.validate();
+            if(version == this.version && version == this.grid.getVersion()) {  // the grid might have changed during the search
+                this.results.put(this.key(startX, startY, targetX, targetY), result);
+            }
+        }
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public void clear() {
+        synchronized(this.results) {
+            this.results.clear();
+        }
+    }
+
+    /**
+     * Drops the cached results if the grid has changed since they were found.
+     */
+    private void validate() {
+        long version = this.grid.getVersion();
+        if(version != this.version) {
+            if(!this.results.isEmpty()) {
+                this.results.clear();
+                this.invalidations.increment();
+            }
+            this.version = version;
+        }
+    }
+
+    private long key(int startX, int startY, int targetX, int targetY) {
+        return (long) this.grid.index(startX, startY) << 32 | this.grid.index(targetX, targetY);
+    }
+
+    /**
+     * @return amount of cached results
+     */
+    public int size() {
+        synchronized(this.results) {
+            return this.results.size();
+        }
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return amount of queries answered from the cache
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return amount of queries, which had to be searched
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return amount of results evicted because the cache was full
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return amount of times the cached results were dropped because the grid had changed
+     */
+    public long getInvalidations() {
+        return this.invalidations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "PathCache[size: " + this.size() + "/" + this.capacity + ", hits: " + this.getHits() + ", misses: " + this.getMisses()
+                + ", evictions: " + this.getEvictions() + ", invalidations: " + this.getInvalidations() + "]";
+    }
+}
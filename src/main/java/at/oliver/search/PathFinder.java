@@ -0,0 +1,20 @@
+package at.oliver.search;
+
+/**
+ * Finds paths on the {@code Grid} it has been created for.
+ *
+ * @see SearchAlgorithm#create
+ */
+@FunctionalInterface
+public interface PathFinder {
+    /**
+     * Searches the shortest path between start and target.
+     *
+     * @param startX  x-position of the start
+     * @param startY  y-position of the start
+     * @param targetX x-position of the target
+     * @param targetY y-position of the target
+     * @return the result of the finished search
+     */
+    SearchResult findPath(int startX, int startY, int targetX, int targetY);
+}
@@ -0,0 +1,157 @@
+package at.oliver.search;
+
+import java.util.Arrays;
+
+/**
+ * Space-time reservations of agents: which agent occupies a cell at a time step.
+ * <p>
+ * Open addressing with linear probing over one {@code long} per entry, the time in the upper and the cell in the
+ * lower 32 bits, next to the agent in an {@code int} array. Reservations of the past are not removed one by one:
+ * once the table fills up, it is rebuilt with the reservations from the current time on only.
+ *
+ * @see CooperativeAStar
+ */
+final class ReservationTable {
+    static final int NONE = -1;
+
+    private static final long EMPTY = -1;
+    private static final long REMOVED = -2;  // keeps probing past released entries
+    private static final int MIN_CAPACITY = 64;
+
+    private long[] keys;
+    private int[] agents;
+    private int mask;
+    private int used;  // entries which are not empty, removed ones included
+    private int now;  // reservations before this time step are outdated
+
+    ReservationTable(int expected) {
+        this.allocate(capacityFor(expected));
+    }
+
+    /**
+     * Moves on to the given time step, earlier reservations are dropped at the next rebuild.
+     */
+    void setTime(int now) {
+        this.now = now;
+    }
+
+    /**
+     * @return agent which reserved the cell at the time step, {@value NONE} if it's free
+     */
+    int agentAt(int cell, int time) {
+        long key = key(cell, time);
+        for(int slot = hash(key) & this.mask; ; slot = (slot + 1) & this.mask) {
+            long entry = this.keys[slot];
+            if(entry == key) {
+                return this.agents[slot];
+            }
+            if(entry == EMPTY) {
+                return NONE;
+            }
+        }
+    }
+
+    /**
+     * Reserves the cell at the time step for the agent, replacing an earlier reservation of the same cell and time.
+     */
+    void reserve(int cell, int time, int agent) {
+        if(this.used + 1 > (this.keys.length >> 1)) {
+            this.rebuild();
+        }
+        long key = key(cell, time);
+        int free = -1;  // first removed slot on the way
+        int slot = hash(key) & this.mask;
+        for(; ; slot = (slot + 1) & this.mask) {
+            long entry = this.keys[slot];
+            if(entry == key) {
+                this.agents[slot] = agent;
+                return;
+            }
+            if(entry == EMPTY) {
+                break;
+            }
+            if(entry == REMOVED && free == -1) {
+                free = slot;
+            }
+        }
+        if(free != -1) {
+            slot = free;
+        }
+        else {
+            this.used++;
+        }
+        this.keys[slot] = key;
+        this.agents[slot] = agent;
+    }
+
+    /**
+     * Releases the reservation of the cell at the time step, if there is one.
+     */
+    void release(int cell, int time) {
+        long key = key(cell, time);
+        for(int slot = hash(key) & this.mask; ; slot = (slot + 1) & this.mask) {
+            long entry = this.keys[slot];
+            if(entry == key) {
+                this.keys[slot] = REMOVED;
+                this.agents[slot] = NONE;
+                return;
+            }
+            if(entry == EMPTY) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops removed and outdated entries, and grows the table if the current ones would fill more than a quarter.
+     */
+    private void rebuild() {
+        long[] keys = this.keys;
+        int[] agents = this.agents;
+        int current = 0;
+        for(long key : keys) {
+            if(key >= 0 && (int) (key >>> 32) >= this.now) {
+                current++;
+            }
+        }
+        this.allocate(Math.max(keys.length, capacityFor(current * 2)));
+        for(int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if(key >= 0 && (int) (key >>> 32) >= this.now) {
+                int target = hash(key) & this.mask;
+                while(this.keys[target] != EMPTY) {
+                    target = (target + 1) & this.mask;
+                }
+                this.keys[target] = key;
+                this.agents[target] = agents[slot];
+                this.used++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.agents = new int[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        this.mask = capacity - 1;
+        this.used = 0;
+    }
+
+    /**
+     * @return power of two holding the entries at a load of at most a half
+     */
+    private static int capacityFor(int entries) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(entries, 1) * 2 - 1) << 1);
+    }
+
+    private static long key(int cell, int time) {
+        return (long) time << 32 | cell;
+    }
+
+    /**
+     * Fibonacci hashing, spreads consecutive cells and time steps over the whole table.
+     */
+    static int hash(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
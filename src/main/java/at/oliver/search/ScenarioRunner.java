@@ -0,0 +1,225 @@
+package at.oliver.search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Runs the scenarios of Moving AI benchmark files headless and reports the throughput, and how the found path
+ * lengths compare to the reference lengths. Scenarios are streamed, the map of the current scenario stays loaded
+ * until a scenario of another map follows.
+ * <p>
+ * The reference lengths of the benchmarks forbid cutting corners, so they can't tell whether a path is optimal under
+ * the moves of this package. Every scenario is therefore also searched by a Dijkstra of {@code DistanceMatrix}, under
+ * the same moves and costs; a path of another cost is counted as a mismatch. Only the time of the algorithm counts
+ * for the throughput.
+ * <p>
+ * Usage: {@code ScenarioRunner <algorithm> <scenario file>...}, e.g. {@code ScenarioRunner A_STAR arena.map.scen}.
+ *
+ * @see MovingAi
+ */
+public class ScenarioRunner {
+    private static final double TOLERANCE = 1e-4;  // of the reference lengths, rounded in the files
+
+    private final SearchAlgorithm algorithm;
+
+    // map of the previous scenario
+    private String mapName;
+    private Grid grid;
+    private PathFinder finder;
+    private DistanceMatrix reference;
+
+    /**
+     * @param algorithm algorithm searching the scenarios
+     */
+    public ScenarioRunner(SearchAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: ScenarioRunner <algorithm> <scenario file>...");
+            return;
+        }
+        ScenarioRunner runner = new ScenarioRunner(SearchAlgorithm.valueOf(args[0].toUpperCase(Locale.ROOT)));
+        for(int i = 1; i < args.length; i++) {
+            System.out.println(args[i] + ": " + runner.run(Paths.get(args[i])));
+        }
+    }
+
+    /**
+     * Runs all scenarios of a file. Maps are looked up by the path given in the scenario, relative to the directory of
+     * the scenario file, or by their file name in that directory.
+     *
+     * @param scenarios {@code .scen} file
+     * @return totals of all scenarios of the file
+     * @throws IOException if a file can't be read or is malformed
+     */
+    public Report run(Path scenarios) throws IOException {
+        Report report = new Report();
+        Path directory = scenarios.toAbsolutePath().getParent();
+        try(Stream<MovingAi.Scenario> stream = MovingAi.scenarios(scenarios)) {
+            Iterator<MovingAi.Scenario> iterator = stream.iterator();
+            while(iterator.hasNext()) {
+                MovingAi.Scenario scenario = iterator.next();
+                this.load(directory, scenario);
+                this.run(scenario, report);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Loads the map of the scenario, unless it's the map of the previous one.
+     */
+    private void load(Path directory, MovingAi.Scenario scenario) throws IOException {
+        if(scenario.getMap().equals(this.mapName)) {
+            return;
+        }
+        Path file = directory.resolve(scenario.getMap());
+        if(!Files.exists(file)) {
+            file = directory.resolve(file.getFileName());
+        }
+        this.grid = MovingAi.readMap(file);
+        this.finder = this.algorithm.create(this.grid);
+        this.reference = new DistanceMatrix(this.grid);
+        this.mapName = scenario.getMap();
+    }
+
+    private void run(MovingAi.Scenario scenario, Report report) throws IOException {
+        if(this.grid.getWidth() != scenario.getMapWidth() || this.grid.getHeight() != scenario.getMapHeight()
+                || !this.grid.contains(scenario.getStartX(), scenario.getStartY()) || !this.grid.contains(scenario.getTargetX(), scenario.getTargetY())) {
+            throw new IOException("Error at ScenarioRunner: " + scenario + " doesn't fit its map");
+        }
+        long begin = System.nanoTime();
+        SearchResult result = this.finder.findPath(scenario.getStartX(), scenario.getStartY(), scenario.getTargetX(), scenario.getTargetY());
+        report.nanos += System.nanoTime() - begin;
+        report.scenarios++;
+        report.expandedNodes += result.getStats().getExpandedNodes();
+
+        int start = this.grid.index(scenario.getStartX(), scenario.getStartY());
+        int target = this.grid.index(scenario.getTargetX(), scenario.getTargetY());
+        int referenceCost = this.reference.compute(new int[]{start, target})[1];
+        boolean reachable = referenceCost != DistanceMatrix.UNREACHABLE;
+        if(result.isFound() && (!reachable || result.getCost() < referenceCost)) {
+            report.belowReference++;
+        }
+        else if(result.isFound() ? result.getCost() > referenceCost : reachable) {
+            report.aboveReference++;
+        }
+
+        if(!result.isFound()) {
+            report.missed++;
+            return;
+        }
+        double length = MovingAi.length(this.grid, result.getPath());
+        double ratio = scenario.getOptimalLength() > 0 ? length / scenario.getOptimalLength() : 1;
+        report.found++;
+        report.ratioSum += ratio;
+        report.maxRatio = Math.max(report.maxRatio, ratio);
+        if(length < scenario.getOptimalLength() - TOLERANCE) {
+            report.shorter++;
+        }
+        else if(length > scenario.getOptimalLength() + TOLERANCE) {
+            report.longer++;
+        }
+    }
+
+    /**
+     * Totals of the scenarios run.
+     */
+    public static class Report {
+        private int scenarios, found, missed, shorter, longer, belowReference, aboveReference;
+        private long expandedNodes, nanos;
+        private double ratioSum, maxRatio;
+
+        public int getScenarios() {
+            return this.scenarios;
+        }
+
+        public int getFound() {
+            return this.found;
+        }
+
+        /**
+         * @return amount of scenarios without a path found, every scenario of the benchmarks has one
+         */
+        public int getMissed() {
+            return this.missed;
+        }
+
+        /**
+         * @return amount of paths shorter than the reference, possible by cutting corners
+         */
+        public int getShorter() {
+            return this.shorter;
+        }
+
+        /**
+         * @return amount of paths longer than the reference
+         */
+        public int getLonger() {
+            return this.longer;
+        }
+
+        /**
+         * @return amount of paths cheaper than the reference search under the same moves, which only any-angle paths
+         * can be, or found although the reference found none
+         */
+        public int getBelowReference() {
+            return this.belowReference;
+        }
+
+        /**
+         * @return amount of paths more expensive than the reference search under the same moves, or missed although it
+         * found one, possible for near-optimal algorithms only
+         */
+        public int getAboveReference() {
+            return this.aboveReference;
+        }
+
+        /**
+         * @return average length of the found paths relative to the reference lengths
+         */
+        public double getMeanRatio() {
+            return this.found == 0 ? 0 : this.ratioSum / this.found;
+        }
+
+        /**
+         * @return highest length of a found path relative to its reference length
+         */
+        public double getMaxRatio() {
+            return this.maxRatio;
+        }
+
+        public long getExpandedNodes() {
+            return this.expandedNodes;
+        }
+
+        /**
+         * @return time spent searching in nanoseconds, loading the maps excluded
+         */
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        /**
+         * @return scenarios searched per second
+         */
+        public double getThroughput() {
+            return this.nanos == 0 ? 0 : this.scenarios * 1e9 / this.nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Report[scenarios: %d, found: %d, missed: %d, shorter: %d, longer: %d, below reference: %d, "
+                            + "above reference: %d, mean ratio: %.4f, max ratio: %.4f, expanded: %d, time: %dms, throughput: %.1f/s]",
+                    this.scenarios, this.found, this.missed, this.shorter, this.longer, this.belowReference, this.aboveReference,
+                    this.getMeanRatio(), this.maxRatio, this.expandedNodes, this.nanos / 1_000_000, this.getThroughput());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package at.oliver.search;
+
+/**
+ * Selectable search algorithms. All of them find paths of the same, optimal cost, except for
+ * {@link SearchAlgorithm#HIERARCHICAL_A_STAR}, whose paths are near-optimal. {@link SearchAlgorithm#ANYTIME_A_STAR}
+ * finds suboptimal paths first, but keeps improving them until they are optimal, as no budget is given.
+ * {@link SearchAlgorithm#THETA_STAR} and {@link SearchAlgorithm#LAZY_THETA_STAR} search any-angle paths, which are
+ * at most as long, and return their waypoints only.
+ */
+public enum SearchAlgorithm {
+    A_STAR {
+        @Override
+        public PathFinder create(Grid grid) {
+            SearchContext context = new SearchContext(grid.size());  // reused by every search of the PathFinder
+            return (startX, startY, targetX, targetY) -> AStar.findPath(grid, startX, startY, targetX, targetY, context);
+        }
+    },
+    A_STAR_LANDMARKS {
+        @Override
+        public PathFinder create(Grid grid) {
+            SearchContext context = new SearchContext(grid.size());
+            Landmarks[] landmarks = {Landmarks.compute(grid, Landmarks.DEFAULT_COUNT)};  // computed again after changes
+            return (startX, startY, targetX, targetY) -> {
+                if(!landmarks[0].isCurrent(grid)) {
+                    landmarks[0] = Landmarks.compute(grid, Landmarks.DEFAULT_COUNT);
+                }
+                return AStar.findPath(grid, startX, startY, targetX, targetY, context, landmarks[0]);
+            };
+        }
+    },
+    BIDIRECTIONAL_A_STAR {
+        @Override
+        public PathFinder create(Grid grid) {
+            return new BidirectionalAStar(grid);
+        }
+    },
+    PARALLEL_BIDIRECTIONAL_A_STAR {
+        @Override
+        public PathFinder create(Grid grid) {
+            return new BidirectionalAStar(grid, true);
+        }
+    },
+    ANYTIME_A_STAR {
+        @Override
+        public PathFinder create(Grid grid) {
+            return new AnytimeAStar(grid);
+        }
+    },
+    JUMP_POINT_SEARCH {
+        @Override
+        public PathFinder create(Grid grid) {
+            return new JumpPointSearch(grid);
+        }
+    },
+    JUMP_POINT_SEARCH_PLUS {
+        @Override
+        public PathFinder create(Grid grid) {
+            return new JumpPointSearchPlus(grid);
+        }
+    },
+    HIERARCHICAL_A_STAR {
+        @Override
+        public PathFinder create(Grid grid) {
+            return HierarchicalAStar.create(grid);
+        }
+    },
+    THETA_STAR {
+        @Override
+        public PathFinder create(Grid grid) {
+            return new ThetaStar(grid);
+        }
+    },
+    LAZY_THETA_STAR {
+        @Override
+        public PathFinder create(Grid grid) {
+            return new ThetaStar(grid, true);
+        }
+    };
+
+    /**
+     * Creates a {@code PathFinder} for the given grid. Precomputations are done right away,
+     * the grid must not change afterwards unless the {@code PathFinder} is a {@code Grid.Listener}. Such a
+     * {@code PathFinder} follows the grid until it's closed, see {@link HierarchicalAStar#close}.
+     *
+     * @param grid grid to be searched
+     * @return path finder for the grid
+     */
+    public abstract PathFinder create(Grid grid);
+}
@@ -0,0 +1,77 @@
+package at.oliver.search;
+
+/**
+ * Limits of a search: a deadline, a maximum amount of expanded cells, and cancellation from another thread.
+ * A search running out of its budget stops early and returns what it has found so far, see {@link SearchResult#isPartial}.
+ * <p>
+ * The deadline is taken from {@link System#nanoTime} when the budget is created. It is checked every
+ * {@value CLOCK_INTERVAL} expansions only, reading the clock costs about as much as expanding a cell.
+ *
+ * @see AStar#setBudget
+ * @see AnytimeAStar
+ */
+public class SearchBudget {
+    public static final long NO_LIMIT = -1;
+
+    private static final int CLOCK_INTERVAL = 32;  // expansions, power of two
+
+    private final long deadline;  // System.nanoTime
+    private final boolean timed;
+    private final long maxExpansions;
+    private volatile boolean cancelled;
+    private volatile boolean expired;  // deadline passed, remembered so the clock isn't read again
+
+    /**
+     * Creates a budget which is only exhausted by cancelling it.
+     */
+    public SearchBudget() {
+        this(NO_LIMIT, NO_LIMIT);
+    }
+
+    /**
+     * @param timeoutNanos  time from now until the search has to stop, {@value NO_LIMIT} for none
+     * @param maxExpansions amount of cells the search may expand, {@value NO_LIMIT} for any
+     */
+    public SearchBudget(long timeoutNanos, long maxExpansions) {
+        if(timeoutNanos < NO_LIMIT || maxExpansions < NO_LIMIT) {
+            throw new IllegalArgumentException("Error at SearchBudget: limits must not be negative");
+        }
+        this.timed = timeoutNanos != NO_LIMIT;
+        this.deadline = System.nanoTime() + (this.timed ? timeoutNanos : 0);
+        this.maxExpansions = maxExpansions == NO_LIMIT ? Long.MAX_VALUE : maxExpansions;
+    }
+
+    /**
+     * Stops the searches using this budget at their next expansion. May be called from any thread.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * @return {@code true} if the deadline has passed, reads the clock
+     */
+    public boolean isExpired() {
+        if(!this.expired && this.timed && System.nanoTime() - this.deadline >= 0) {
+            this.expired = true;
+        }
+        return this.expired;
+    }
+
+    /**
+     * Checked by the search before every expansion.
+     *
+     * @param expansions amount of cells expanded so far
+     * @return {@code true} if the search has to stop
+     */
+    boolean isExhausted(long expansions) {
+        if(this.cancelled || expansions >= this.maxExpansions) {
+            return true;
+        }
+        return (expansions & (CLOCK_INTERVAL - 1)) == 0 ? this.isExpired() : this.expired;
+    }
+}
@@ -0,0 +1,111 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntHeap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Mutable state of one search, reusable for the following searches on grids of up to the same size.
+ * <p>
+ * Instead of clearing the arrays, every search gets a new epoch: a cell only counts as opened or closed if its stamp
+ * belongs to the current epoch, so starting a search takes time proportional to the cells the last search touched
+ * (the open list is cleared), not to the size of the grid.
+ * <p>
+ * A context serves one search at a time; starting another search invalidates the state of the previous one.
+ *
+ * @see AStar
+ */
+public class SearchContext {
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int capacity;
+
+    final int[] g_cost;  // distance from starting cell, valid if opened
+    final int[] explorer;  // index of the cell this cell was explored from, valid if opened
+    private final int[] stamps;  // epoch: opened, epoch + 1: closed, anything lower: untouched
+    final IntHeap open;
+    private int epoch = 1;
+
+    /**
+     * Creates a context with the open list chosen by {@link OpenLists#create}.
+     *
+     * @param capacity amount of cells of the largest grid to be searched
+     */
+    public SearchContext(int capacity) {
+        this(capacity, OpenLists.create(capacity, Distance.DIAGONAL));
+    }
+
+    /**
+     * @param capacity amount of cells of the largest grid to be searched
+     * @param open     open list, must be able to hold every cell index below the capacity
+     */
+    public SearchContext(int capacity, IntHeap open) {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("Error at SearchContext: capacity must not be negative");
+        }
+        this.capacity = capacity;
+        this.g_cost = new int[capacity];
+        this.explorer = new int[capacity];
+        this.stamps = new int[capacity];
+        this.open = open;
+    }
+
+    /**
+     * @return amount of cells of the largest grid to be searched
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Forgets the state of the previous search.
+     */
+    void reset() {
+        this.open.clear();
+        this.epoch += 2;
+        if(this.epoch >= Integer.MAX_VALUE - 1) {  // stamps of old epochs could be mistaken for new ones
+            Arrays.fill(this.stamps, 0);
+            this.epoch = 1;
+        }
+    }
+
+    boolean isOpened(int index) {
+        return this.stamps[index] >= this.epoch;
+    }
+
+    boolean isClosed(int index) {
+        return this.stamps[index] == this.epoch + 1;
+    }
+
+    void setOpened(int index) {
+        this.stamps[index] = this.epoch;
+    }
+
+    void setClosed(int index) {
+        this.stamps[index] = this.epoch + 1;
+    }
+
+    /**
+     * Sets the g_cost of a cell and marks it as opened, visible to {@link SearchContext#getG_costVolatile} on other threads.
+     */
+    void setG_costVolatile(int index, int g_cost) {
+        INTS.setVolatile(this.g_cost, index, g_cost);
+        if((int) INTS.getVolatile(this.stamps, index) < this.epoch) {
+            INTS.setVolatile(this.stamps, index, this.epoch);
+        }
+    }
+
+    /**
+     * Reads the g_cost of a cell, which might be written by another thread at the same time.
+     *
+     * @return g_cost of the cell, -1 if it has not been opened yet
+     */
+    int getG_costVolatile(int index) {
+        if((int) INTS.getVolatile(this.stamps, index) < this.epoch) {
+            return -1;
+        }
+        return (int) INTS.getVolatile(this.g_cost, index);
+    }
+}
@@ -0,0 +1,27 @@
+package at.oliver.search;
+
+/**
+ * Receives the progress of a search, e.g. for visualizing it.
+ * Headless searches run without a listener.
+ */
+public interface SearchListener {
+    /**
+     * Called when a cell has been taken from the open list and its neighbours are about to be explored.
+     *
+     * @param x      x-position of the cell
+     * @param y      y-position of the cell
+     * @param g_cost distance from the start
+     * @param h_cost estimated distance to the target
+     */
+    void onClose(int x, int y, int g_cost, int h_cost);
+
+    /**
+     * Called for every neighbour examined while a cell is explored, after its costs have been updated.
+     *
+     * @param x      x-position of the cell
+     * @param y      y-position of the cell
+     * @param g_cost distance from the start
+     * @param h_cost estimated distance to the target
+     */
+    void onVisit(int x, int y, int g_cost, int h_cost);
+}
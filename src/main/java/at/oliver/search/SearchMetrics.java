@@ -0,0 +1,179 @@
+package at.oliver.search;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals of the {@code SearchStats} of many searches, e.g. to alert on slow queries. Searches are added by
+ * {@link SearchMetrics#record}, or by every search of a {@code PathFinder} passed to {@link SearchMetrics#wrap}.
+ * The counters can be read directly or, after {@link SearchMetrics#register}, over JMX.
+ * <p>
+ * Thread-safe; searches without metrics don't pay for any of this.
+ */
+public class SearchMetrics implements SearchMetricsMBean {
+    private final long slowSearchNanos;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder foundPaths = new LongAdder();
+    private final LongAdder expandedNodes = new LongAdder();
+    private final LongAdder openedNodes = new LongAdder();
+    private final LongAdder decreasedKeys = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder listenerNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder slowSearches = new LongAdder();
+    private final LongAccumulator maxSearchNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxPeakOpenSize = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param slowSearchMillis searches taking longer are counted as slow
+     */
+    public SearchMetrics(long slowSearchMillis) {
+        if(slowSearchMillis < 0) {
+            throw new IllegalArgumentException("Error at SearchMetrics: slowSearchMillis must not be negative");
+        }
+        this.slowSearchNanos = slowSearchMillis * 1_000_000;
+    }
+
+    /**
+     * Adds the stats of a finished search.
+     *
+     * @param result result of the search
+     */
+    public void record(SearchResult result) {
+        SearchStats stats = result.getStats();
+        this.searches.increment();
+        if(result.isFound()) {
+            this.foundPaths.increment();
+        }
+        this.expandedNodes.add(stats.expandedNodes);
+        this.openedNodes.add(stats.openedNodes);
+        this.decreasedKeys.add(stats.decreasedKeys);
+        this.searchNanos.add(stats.searchNanos);
+        this.listenerNanos.add(stats.listenerNanos);
+        this.cpuNanos.add(stats.cpuNanos);
+        if(stats.searchNanos > this.slowSearchNanos) {
+            this.slowSearches.increment();
+        }
+        this.maxSearchNanos.accumulate(stats.searchNanos);
+        this.maxPeakOpenSize.accumulate(stats.peakOpenSize);
+    }
+
+    /**
+     * Records every search of the given {@code PathFinder}, including the CPU time it takes.
+     *
+     * @param finder searches to be recorded
+     * @return {@code PathFinder} delegating to the given one
+     */
+    public PathFinder wrap(PathFinder finder) {
+        return (startX, startY, targetX, targetY) -> {
+            long cpuBegin = SearchStats.threadCpuNanos();
+            SearchResult result = finder.findPath(startX, startY, targetX, targetY);
+            result.getStats().cpuNanos = SearchStats.threadCpuNanos() - cpuBegin;
+            this.record(result);
+            return result;
+        };
+    }
+
+    /**
+     * Registers the metrics at the platform MBean server as {@code at.oliver.search:type=SearchMetrics,name=<name>}.
+     *
+     * @param name name telling the metrics apart from others
+     * @return name the metrics were registered with
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("at.oliver.search:type=SearchMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        }
+        catch(JMException e) {
+            throw new IllegalStateException("Error at SearchMetrics: could not register " + name, e);
+        }
+    }
+
+    @Override
+    public long getSearches() {
+        return this.searches.sum();
+    }
+
+    @Override
+    public long getFoundPaths() {
+        return this.foundPaths.sum();
+    }
+
+    @Override
+    public long getExpandedNodes() {
+        return this.expandedNodes.sum();
+    }
+
+    @Override
+    public long getOpenedNodes() {
+        return this.openedNodes.sum();
+    }
+
+    @Override
+    public long getDecreasedKeys() {
+        return this.decreasedKeys.sum();
+    }
+
+    @Override
+    public long getTotalSearchMillis() {
+        return this.searchNanos.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getTotalListenerMillis() {
+        return this.listenerNanos.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getTotalCpuMillis() {
+        return this.cpuNanos.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getMaxSearchMillis() {
+        return this.maxSearchNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public int getMaxPeakOpenSize() {
+        return (int) this.maxPeakOpenSize.get();
+    }
+
+    /**
+     * @return amount of searches taking longer than {@link SearchMetrics#getSlowSearchMillis}
+     */
+    @Override
+    public long getSlowSearches() {
+        return this.slowSearches.sum();
+    }
+
+    @Override
+    public long getSlowSearchMillis() {
+        return this.slowSearchNanos / 1_000_000;
+    }
+
+    /**
+     * Sets all counters back to 0.
+     */
+    @Override
+    public void reset() {
+        for(LongAdder adder : new LongAdder[]{this.searches, this.foundPaths, this.expandedNodes, this.openedNodes, this.decreasedKeys,
+                this.searchNanos, this.listenerNanos, this.cpuNanos, this.slowSearches}) {
+            adder.reset();
+        }
+        this.maxSearchNanos.reset();
+        this.maxPeakOpenSize.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchMetrics[searches: " + this.getSearches() + ", found: " + this.getFoundPaths() + ", slow: " + this.getSlowSearches()
+                + ", max: " + this.getMaxSearchMillis() + "ms]";
+    }
+}
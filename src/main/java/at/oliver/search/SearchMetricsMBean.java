@@ -0,0 +1,34 @@
+package at.oliver.search;
+
+/**
+ * Management interface of {@code SearchMetrics}, the attributes and operations visible over JMX.
+ *
+ * @see SearchMetrics
+ */
+public interface SearchMetricsMBean {
+    long getSearches();
+
+    long getFoundPaths();
+
+    long getExpandedNodes();
+
+    long getOpenedNodes();
+
+    long getDecreasedKeys();
+
+    long getTotalSearchMillis();
+
+    long getTotalListenerMillis();
+
+    long getTotalCpuMillis();
+
+    long getMaxSearchMillis();
+
+    int getMaxPeakOpenSize();
+
+    long getSlowSearches();
+
+    long getSlowSearchMillis();
+
+    void reset();
+}
@@ -0,0 +1,83 @@
+package at.oliver.search;
+
+/**
+ * Outcome of a search: the path from start to target and the collected {@code SearchStats}.
+ * <p>
+ * A search stopped by its {@code SearchBudget} returns a partial result instead: the path to the cell which got
+ * closest to the target, measured by h_cost.
+ *
+ * @see SearchBudget
+ */
+public class SearchResult {
+    private static final int[] NO_PATH = new int[0];
+
+    private final int[] path;
+    private final int cost;
+    private final SearchStats stats;
+    private final boolean partial;
+
+    SearchResult(int[] path, int cost, SearchStats stats) {
+        this(path, cost, stats, false);
+    }
+
+    private SearchResult(int[] path, int cost, SearchStats stats, boolean partial) {
+        this.path = path;
+        this.cost = cost;
+        this.stats = stats;
+        this.partial = partial;
+    }
+
+    static SearchResult noPath(SearchStats stats) {
+        return new SearchResult(NO_PATH, -1, stats);
+    }
+
+    /**
+     * @param path cell indices from the start to the cell closest to the target
+     * @param cost distance from the start to the last cell of the path
+     */
+    static SearchResult partial(int[] path, int cost, SearchStats stats) {
+        return new SearchResult(path, cost, stats, true);
+    }
+
+    /**
+     * @return {@code true} if the path reaches the target
+     */
+    public boolean isFound() {
+        return this.path.length > 0 && !this.partial;
+    }
+
+    /**
+     * @return {@code true} if the search was stopped by its budget before it could reach the target
+     */
+    public boolean isPartial() {
+        return this.partial;
+    }
+
+    /**
+     * Returns the cells of the path, including start and target. The path of a partial result ends at the cell
+     * closest to the target instead. Any-angle searches like {@code ThetaStar} only return the waypoints, every cell
+     * is in line of sight of the one before.
+     *
+     * @return cell indices ({@code y * width + x}) from start to target, empty if no path exists
+     * @see Grid#index
+     */
+    public int[] getPath() {
+        return this.path;
+    }
+
+    /**
+     * @return distance from start to target (to the last cell of a partial path), -1 if no path exists
+     */
+    public int getCost() {
+        return this.cost;
+    }
+
+    public SearchStats getStats() {
+        return this.stats;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[found: " + this.isFound() + (this.partial ? ", partial" : "") + ", cost: " + this.cost + ", length: " + this.path.length + ", " + this.stats + "]";
+    }
+}
@@ -0,0 +1,95 @@
+package at.oliver.search;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters collected during a search. Counters an algorithm doesn't collect stay 0.
+ *
+ * @see SearchMetrics
+ */
+public class SearchStats {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    int expandedNodes;
+    int openedNodes;
+    int decreasedKeys;
+    int peakOpenSize;
+    int lineOfSightChecks;
+    long searchNanos;
+    long listenerNanos;
+    long cpuNanos;
+
+    /**
+     * @return amount of cells taken from the open list and explored
+     */
+    public int getExpandedNodes() {
+        return this.expandedNodes;
+    }
+
+    /**
+     * @return amount of cells added to the open list
+     */
+    public int getOpenedNodes() {
+        return this.openedNodes;
+    }
+
+    /**
+     * @return amount of open cells, which were reached by a shorter route later on
+     */
+    public int getDecreasedKeys() {
+        return this.decreasedKeys;
+    }
+
+    /**
+     * @return largest amount of entries on the open list at the same time, outdated entries included
+     */
+    public int getPeakOpenSize() {
+        return this.peakOpenSize;
+    }
+
+    /**
+     * @return amount of line-of-sight tests of an any-angle search
+     * @see Grid#hasLineOfSight
+     */
+    public int getLineOfSightChecks() {
+        return this.lineOfSightChecks;
+    }
+
+    /**
+     * @return time spent searching in nanoseconds, without the time of the {@code SearchListener}
+     */
+    public long getSearchNanos() {
+        return this.searchNanos;
+    }
+
+    /**
+     * @return time spent in the {@code SearchListener} in nanoseconds, e.g. for rendering the explored cells
+     */
+    public long getListenerNanos() {
+        return this.listenerNanos;
+    }
+
+    /**
+     * Only measured for searches with a {@code SearchListener} and searches run by {@link SearchMetrics#wrap}.
+     *
+     * @return CPU time of the searching thread in nanoseconds, listener included
+     */
+    public long getCpuNanos() {
+        return this.cpuNanos;
+    }
+
+    /**
+     * @return CPU time of the current thread in nanoseconds, 0 if the VM doesn't measure it
+     */
+    static long threadCpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchStats[expanded: " + this.expandedNodes + ", opened: " + this.openedNodes + ", decreased keys: " + this.decreasedKeys
+                + ", peak open: " + this.peakOpenSize + ", line of sight: " + this.lineOfSightChecks + ", time: " + this.searchNanos / 1_000_000 + "ms, listener: " + this.listenerNanos / 1_000_000
+                + "ms, cpu: " + this.cpuNanos / 1_000_000 + "ms]";
+    }
+}
@@ -0,0 +1,186 @@
+package at.oliver.search;
+
+import at.oliver.heap.IntHeap;
+import at.oliver.heap.IntMinHeap;
+
+/**
+ * Theta*: any-angle A*, whose paths are not bound to the eight directions. A cell reached from a neighbour takes
+ * the neighbour's explorer as its own if that one is in {@link Grid#hasLineOfSight line of sight}, so the path
+ * goes straight to it. Costs are lengths of straight lines in the units of {@code Distance}, the h_cost is the
+ * euclidean distance to the target. Paths are mostly shorter than those of {@code AStar}, but neither always the
+ * shortest any-angle paths nor always shorter: which neighbour gets a cell first decides its explorer.
+ * <p>
+ * The returned path only contains the waypoints: start, the cells where it turns, and target. Consecutive waypoints
+ * are in line of sight.
+ * <p>
+ * Lazy Theta* tests the line of sight only when a cell is expanded instead of for every neighbour: the neighbours are
+ * opened with the explorer's explorer, assuming sight, and a cell which turns out to be hidden from it falls back to
+ * its best closed neighbour. That takes one test per expanded cell instead of up to eight.
+ * <p>
+ * The state of the search lives in a {@code SearchContext}, which is reused by the following searches.
+ * Not thread-safe, one search at a time.
+ *
+ * @see AStar
+ */
+public class ThetaStar implements PathFinder {
+    private static final int NO_CELL = -1;
+
+    private final Grid grid;
+    private final int width, height;
+    private final int[] offsets;  // index differences of the directions
+    private final boolean lazy;
+
+    // state of the running search
+    private int start, targetX, targetY;
+    private final SearchContext context;
+    private final int[] g_cost, explorer;  // of the context
+    private final IntHeap open;  // of the context
+
+    public ThetaStar(Grid grid) {
+        this(grid, false);
+    }
+
+    /**
+     * @param grid grid to be searched
+     * @param lazy {@code true} for Lazy Theta*, which tests the line of sight only for expanded cells
+     */
+    public ThetaStar(Grid grid, boolean lazy) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.offsets = Directions.offsets(this.width);
+        this.lazy = lazy;
+
+        this.context = new SearchContext(grid.size(), new IntMinHeap(1024));  // lines of sight are too long for a BucketQueue
+        this.g_cost = this.context.g_cost;
+        this.explorer = this.context.explorer;
+        this.open = this.context.open;
+    }
+
+    @Override
+    public SearchResult findPath(int startX, int startY, int targetX, int targetY) {
+        if(!this.grid.contains(startX, startY) || !this.grid.contains(targetX, targetY)) {
+            throw new IllegalArgumentException("Error at ThetaStar: start and target must lie within the grid");
+        }
+        long begin = System.nanoTime();
+        SearchStats stats = new SearchStats();
+
+        this.start = this.grid.index(startX, startY);
+        int target = this.grid.index(targetX, targetY);
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.context.reset();
+
+        this.open(this.start, startX, startY, 0, NO_CELL, stats);
+
+        SearchResult result = null;
+        while(!this.open.isEmpty()) {
+            int current = this.open.removeFirst();  // returns item with lowest f_cost
+            if(this.context.isClosed(current)) {  // outdated entry
+                continue;
+            }
+            int currentY = current / this.width;
+            int currentX = current - currentY * this.width;
+            if(this.lazy) {
+                this.setExplorer(current, currentX, currentY, stats);
+            }
+            if(current == target) {
+                result = new SearchResult(AStar.tracePath(this.explorer, target), this.g_cost[target], stats);
+                break;
+            }
+            this.context.setClosed(current);
+            stats.expandedNodes++;
+
+            // the line from the explorer's explorer, or from the explorer itself if that's hidden
+            int origin = this.explorer[current] == NO_CELL ? current : this.explorer[current];
+            int originX = this.grid.x(origin);
+            int originY = this.grid.y(origin);
+            for(int d = 0; d < Directions.COUNT; d++) {
+                int x = currentX + Directions.DX[d];
+                int y = currentY + Directions.DY[d];
+                if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                    continue;
+                }
+                int neighbour = current + this.offsets[d];
+                if(this.grid.isBarrier(neighbour) || this.context.isClosed(neighbour) || neighbour == this.start) {
+                    continue;
+                }
+
+                int from = current, fromX = currentX, fromY = currentY;
+                if(origin != current && (this.lazy || this.hasLineOfSight(originX, originY, x, y, stats))) {
+                    from = origin;
+                    fromX = originX;
+                    fromY = originY;
+                }
+                int newCost = this.g_cost[from] + Distance.euclidean(fromX, fromY, x, y);
+                if(!this.context.isOpened(neighbour)) {
+                    this.open(neighbour, x, y, newCost, from, stats);
+                }
+                else if(newCost < this.g_cost[neighbour]) {
+                    this.g_cost[neighbour] = newCost;
+                    this.explorer[neighbour] = from;
+                    this.push(neighbour, key(newCost, Distance.euclidean(x, y, targetX, targetY)), stats);  // outdated entry will be skipped
+                    stats.decreasedKeys++;
+                }
+            }
+        }
+
+        stats.searchNanos = System.nanoTime() - begin;
+        return result == null ? SearchResult.noPath(stats) : result;
+    }
+
+    /**
+     * Lazy Theta*: if the cell, which is about to be expanded, is hidden from its assumed explorer, takes the closed
+     * neighbour it is reached from the cheapest instead. At least the neighbour which opened the cell is closed.
+     */
+    private void setExplorer(int cell, int cellX, int cellY, SearchStats stats) {
+        int explorer = this.explorer[cell];
+        if(explorer == NO_CELL || this.hasLineOfSight(this.grid.x(explorer), this.grid.y(explorer), cellX, cellY, stats)) {
+            return;
+        }
+        int best = Integer.MAX_VALUE;
+        for(int d = 0; d < Directions.COUNT; d++) {
+            int x = cellX + Directions.DX[d];
+            int y = cellY + Directions.DY[d];
+            if(x < 0 || y < 0 || x >= this.width || y >= this.height) {
+                continue;
+            }
+            int neighbour = cell + this.offsets[d];
+            int cost = this.g_cost[neighbour] + Distance.euclidean(x, y, cellX, cellY);
+            if(this.context.isClosed(neighbour) && cost < best) {
+                best = cost;
+                this.explorer[cell] = neighbour;
+            }
+        }
+        this.g_cost[cell] = best;
+    }
+
+    private boolean hasLineOfSight(int fromX, int fromY, int toX, int toY, SearchStats stats) {
+        stats.lineOfSightChecks++;
+        return this.grid.hasLineOfSight(fromX, fromY, toX, toY);
+    }
+
+    private void open(int index, int x, int y, int g_cost, int explorer, SearchStats stats) {
+        this.g_cost[index] = g_cost;
+        this.explorer[index] = explorer;
+        this.context.setOpened(index);
+        this.push(index, key(g_cost, Distance.euclidean(x, y, this.targetX, this.targetY)), stats);
+        stats.openedNodes++;
+    }
+
+    private void push(int index, long key, SearchStats stats) {
+        this.open.add(index, key);
+        if(this.open.size() > stats.peakOpenSize) {
+            stats.peakOpenSize = this.open.size();
+        }
+    }
+
+    /**
+     * Orders the open list by f_cost, equal f_costs by h_cost.
+     *
+     * @return f_cost in the upper, h_cost in the lower 32 bits
+     */
+    private static long key(int g_cost, int h_cost) {
+        return (long) (g_cost + h_cost) << 32 | h_cost;
+    }
+}
@@ -1,6 +1,7 @@
 module at.oliver {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.management;
 
     opens at.oliver to javafx.fxml;
     exports at.oliver;
@@ -9,4 +10,8 @@ module at.oliver {
     exports at.oliver.map;
 
     exports at.oliver.node;
+
+    exports at.oliver.heap;
+
+    exports at.oliver.search;
 }
\ No newline at end of file
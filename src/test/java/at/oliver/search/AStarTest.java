@@ -0,0 +1,94 @@
+package at.oliver.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives {@code AStar} like the self-explore mode of the map: open cells are expanded out of order, far above the
+ * lowest f_cost, before the search is run to the end.
+ */
+class AStarTest {
+    @Test
+    void expandsCellsAwayFromTheTarget() {
+        Grid grid = new Grid(20, 20);
+        AStar search = new AStar(grid, 10, 10, 19, 10);
+        search.step();  // explores the start
+        assertTrue(search.expand(9, 10));
+        assertTrue(search.expand(8, 10));
+
+        SearchResult result = search.run();
+        assertTrue(result.isFound());
+        assertEquals(AStar.findPath(grid, 10, 10, 19, 10).getCost(), result.getCost());
+    }
+
+    @Test
+    void findsShortestPathsAfterRandomExpansions() {
+        Random random = new Random(5);
+        for(int run = 0; run < 200; run++) {
+            Grid grid = new Grid(30, 20);
+            for(int i = 0; i < grid.size(); i++) {
+                if(random.nextInt(100) < 20) {
+                    grid.setTerrain(i, Grid.BARRIER);
+                }
+            }
+            int startX = random.nextInt(30), startY = random.nextInt(20);
+            int targetX = random.nextInt(30), targetY = random.nextInt(20);
+            SearchResult expected = AStar.findPath(grid, startX, startY, targetX, targetY);
+
+            AStar search = new AStar(grid, startX, startY, targetX, targetY);
+            search.step();
+            for(int i = 0; i < 50 && !search.isFinished(); i++) {
+                int x = random.nextInt(30), y = random.nextInt(20);
+                if(search.isOpen(x, y) && (x != targetX || y != targetY)) {
+                    search.expand(x, y);
+                }
+            }
+            SearchResult result = search.run();
+            assertEquals(expected.isFound(), result.isFound());
+            assertEquals(expected.getCost(), result.getCost());
+        }
+    }
+
+    @Test
+    void ignoresLandmarksOfAnOlderTerrain() {
+        Random random = new Random(6);
+        Grid grid = new Grid(60, 40);
+        for(int x = 10; x < 60; x += 10) {  // walls with gaps at alternating ends
+            for(int y = 0; y < 40; y++) {
+                grid.setBarrier(x, y, x % 20 == 0 ? y > 1 : y < 38);
+            }
+        }
+        Landmarks landmarks = Landmarks.compute(grid, Landmarks.DEFAULT_COUNT);
+        for(int x = 10; x < 60; x += 10) {  // the distances shrink, the old ones would overestimate
+            for(int y = 15; y < 25; y++) {
+                grid.setBarrier(x, y, false);
+            }
+        }
+        assertFalse(landmarks.isCurrent(grid));
+
+        SearchContext context = new SearchContext(grid.size());
+        for(int query = 0; query < 200; query++) {
+            int startX = random.nextInt(60), startY = random.nextInt(40);
+            int targetX = random.nextInt(60), targetY = random.nextInt(40);
+            SearchResult expected = AStar.findPath(grid, startX, startY, targetX, targetY);
+            SearchResult result = AStar.findPath(grid, startX, startY, targetX, targetY, context, landmarks);
+            assertEquals(expected.isFound(), result.isFound());
+            assertEquals(expected.getCost(), result.getCost());
+        }
+        assertTrue(Landmarks.compute(grid, Landmarks.DEFAULT_COUNT).isCurrent(grid.snapshot()));
+    }
+
+    @Test
+    void expandingTheTargetFinishes() {
+        Grid grid = new Grid(5, 5);
+        AStar search = new AStar(grid, 0, 0, 1, 1);
+        search.step();
+        assertFalse(search.expand(1, 1));
+        assertEquals(Distance.DIAGONAL, search.getResult().getCost());
+    }
+}
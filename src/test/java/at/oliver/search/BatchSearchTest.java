@@ -0,0 +1,47 @@
+package at.oliver.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs batches on a grid which is changed between them, with algorithms whose {@code PathFinder}s precompute.
+ */
+class BatchSearchTest {
+    private static final int PAIRS = 400;
+
+    @Test
+    void findsPathsOfAStarCostAfterEdits() {
+        for(SearchAlgorithm algorithm : new SearchAlgorithm[]{SearchAlgorithm.JUMP_POINT_SEARCH_PLUS, SearchAlgorithm.A_STAR_LANDMARKS}) {
+            Random random = new Random(4);
+            Grid grid = new Grid(90, 70);
+            ForkJoinPool pool = new ForkJoinPool(3);
+            try(BatchSearch batch = new BatchSearch(grid, algorithm, pool)) {
+                for(int round = 0; round < 4; round++) {
+                    for(int edit = 0; edit < grid.size() / 5; edit++) {
+                        grid.setTerrain(random.nextInt(grid.size()), random.nextBoolean() ? Grid.BARRIER : Grid.WALKABLE);
+                    }
+                    int[] starts = new int[PAIRS], targets = new int[PAIRS];
+                    for(int i = 0; i < PAIRS; i++) {
+                        starts[i] = random.nextInt(grid.size());
+                        targets[i] = random.nextInt(grid.size());
+                    }
+
+                    SearchResult[] results = batch.findPaths(starts, targets);
+                    for(int i = 0; i < PAIRS; i++) {
+                        SearchResult expected = AStar.findPath(grid, grid.x(starts[i]), grid.y(starts[i]), grid.x(targets[i]), grid.y(targets[i]));
+                        String message = algorithm + " in round " + round + " from " + starts[i] + " to " + targets[i];
+                        assertEquals(expected.isFound(), results[i].isFound(), message);
+                        assertEquals(expected.getCost(), results[i].getCost(), message);
+                    }
+                }
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package at.oliver.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Moves crowds of agents on small random maps, where searches are cut short and agents get boxed in,
+ * and checks every tick that no two agents share a cell or swap cells.
+ */
+class CooperativeAStarTest {
+    private static final int TICKS = 300;
+    private static final int SIZE = 64;
+    private static final int AGENTS = 1000;  // on about 3300 walkable cells
+
+    @Test
+    void movesCrowdsWithoutCollisions() {
+        for(long seed = 1; seed <= 2; seed++) {
+            Random random = new Random(seed);
+            Grid grid = new Grid(SIZE, SIZE);
+            for(int i = 0; i < grid.size(); i++) {
+                if(random.nextInt(100) < 20) {
+                    grid.setTerrain(i, Grid.BARRIER);
+                }
+            }
+            CooperativeAStar agents = new CooperativeAStar(grid);
+            Set<Integer> starts = new HashSet<>();
+            while(agents.getAgentCount() < AGENTS) {
+                int start = randomWalkable(grid, random);
+                if(starts.add(start)) {
+                    int target = randomWalkable(grid, random);
+                    agents.addAgent(grid.x(start), grid.y(start), grid.x(target), grid.y(target));
+                }
+            }
+
+            int[] previous = positions(agents);
+            for(int tick = 0; tick < TICKS; tick++) {
+                agents.tick();
+                for(int agent = 0; agent < agents.getAgentCount(); agent++) {
+                    if(agents.isArrived(agent)) {
+                        int target = randomWalkable(grid, random);
+                        agents.setTarget(agent, grid.x(target), grid.y(target));
+                    }
+                }
+                int[] current = positions(agents);
+                assertNoCollision(grid, previous, current, seed, tick);
+                previous = current;
+            }
+        }
+    }
+
+    private static void assertNoCollision(Grid grid, int[] previous, int[] current, long seed, int tick) {
+        Map<Integer, Integer> agentAt = new HashMap<>();
+        for(int agent = 0; agent < current.length; agent++) {
+            String message = "agent " + agent + " at tick " + tick + " of seed " + seed;
+            assertNull(agentAt.put(current[agent], agent), message + " shares its cell");
+            assertTrue(Math.abs(grid.x(current[agent]) - grid.x(previous[agent])) <= 1
+                    && Math.abs(grid.y(current[agent]) - grid.y(previous[agent])) <= 1, message + " jumped");
+            assertFalse(current[agent] != previous[agent] && grid.isBarrier(current[agent]), message + " moved onto a barrier");
+        }
+        for(int agent = 0; agent < current.length; agent++) {
+            Integer other = agentAt.get(previous[agent]);
+            if(other != null && other != agent && current[agent] != previous[agent]) {
+                assertFalse(previous[other] == current[agent], "agents " + agent + " and " + other + " swapped at tick " + tick + " of seed " + seed);
+            }
+        }
+        assertEquals(current.length, agentAt.size());
+    }
+
+    private static int[] positions(CooperativeAStar agents) {
+        int[] positions = new int[agents.getAgentCount()];
+        for(int agent = 0; agent < positions.length; agent++) {
+            positions[agent] = agents.getPosition(agent);
+        }
+        return positions;
+    }
+
+    private static int randomWalkable(Grid grid, Random random) {
+        int cell;
+        do {
+            cell = random.nextInt(grid.size());
+        }
+        while(grid.isBarrier(cell));
+        return cell;
+    }
+}
@@ -0,0 +1,104 @@
+package at.oliver.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the costs of the paths found by {@code JumpPointSearch} and {@code JumpPointSearchPlus}
+ * with those of {@code AStar}, on random grids narrower and wider than a word of the {@code BarrierBitmap}.
+ */
+class JumpPointSearchTest {
+    private static final int[][] SIZES = {{1, 1}, {7, 5}, {63, 40}, {64, 64}, {65, 31}, {130, 70}, {200, 199}};
+    private static final int[] DENSITIES = {0, 5, 15, 30, 40};  // percentage of barriers
+    private static final int QUERIES = 50;
+
+    @Test
+    void findsPathsOfAStarCost() {
+        Random random = new Random(1);
+        for(int[] size : SIZES) {
+            for(int density : DENSITIES) {
+                Grid grid = randomGrid(size[0], size[1], density, random);
+                PathFinder aStar = SearchAlgorithm.A_STAR.create(grid);
+                PathFinder jps = new JumpPointSearch(grid);
+                PathFinder jpsPlus = new JumpPointSearchPlus(grid);
+
+                for(int i = 0; i < QUERIES; i++) {
+                    int[] query = randomQuery(grid, random);
+                    SearchResult expected = findPath(aStar, query);
+                    assertSameCost(expected, findPath(jps, query), "JumpPointSearch", grid, density, query);
+                    assertSameCost(expected, findPath(jpsPlus, query), "JumpPointSearchPlus", grid, density, query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void findsPathsOfAStarCostAfterEdits() {
+        Random random = new Random(2);
+        for(int[] size : SIZES) {
+            for(int density : DENSITIES) {
+                Grid grid = randomGrid(size[0], size[1], density, random);
+                PathFinder aStar = SearchAlgorithm.A_STAR.create(grid);
+                PathFinder jps = new JumpPointSearch(grid);  // follows the edits through the bitmaps of the grid
+
+                for(int i = 0; i < QUERIES; i++) {
+                    for(int edit = 0; edit < 1 + grid.size() / 50; edit++) {
+                        grid.setTerrain(random.nextInt(grid.size()), random.nextBoolean() ? Grid.BARRIER : Grid.WALKABLE);
+                    }
+                    PathFinder jpsPlus = new JumpPointSearchPlus(grid);  // precomputed, must be created again
+
+                    int[] query = randomQuery(grid, random);
+                    SearchResult expected = findPath(aStar, query);
+                    assertSameCost(expected, findPath(jps, query), "JumpPointSearch", grid, density, query);
+                    assertSameCost(expected, findPath(jpsPlus, query), "JumpPointSearchPlus", grid, density, query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void leavesStartOnBarrier() {
+        Grid grid = new Grid(70, 3);
+        for(int x = 0; x < 70; x++) {
+            grid.setBarrier(x, 1, x != 66);
+        }
+        PathFinder aStar = SearchAlgorithm.A_STAR.create(grid);
+        int[] query = {5, 1, 3, 2};
+        SearchResult expected = findPath(aStar, query);
+        assertTrue(expected.isFound());
+        assertSameCost(expected, findPath(new JumpPointSearch(grid), query), "JumpPointSearch", grid, 0, query);
+        assertSameCost(expected, findPath(new JumpPointSearchPlus(grid), query), "JumpPointSearchPlus", grid, 0, query);
+    }
+
+    private static Grid randomGrid(int width, int height, int density, Random random) {
+        Grid grid = new Grid(width, height);
+        for(int i = 0; i < grid.size(); i++) {
+            if(random.nextInt(100) < density) {
+                grid.setTerrain(i, Grid.BARRIER);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * @return start and target, either may be a barrier
+     */
+    private static int[] randomQuery(Grid grid, Random random) {
+        return new int[]{random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight()), random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight())};
+    }
+
+    private static SearchResult findPath(PathFinder finder, int[] query) {
+        return finder.findPath(query[0], query[1], query[2], query[3]);
+    }
+
+    private static void assertSameCost(SearchResult expected, SearchResult actual, String name, Grid grid, int density, int[] query) {
+        String message = name + " on " + grid.getWidth() + "x" + grid.getHeight() + " with " + density + "% barriers from ("
+                + query[0] + ", " + query[1] + ") to (" + query[2] + ", " + query[3] + ")";
+        assertEquals(expected.isFound(), actual.isFound(), message);
+        assertEquals(expected.getCost(), actual.getCost(), message);
+    }
+}